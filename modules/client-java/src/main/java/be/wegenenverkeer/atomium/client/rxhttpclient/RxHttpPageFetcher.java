@@ -1,6 +1,8 @@
 package be.wegenenverkeer.atomium.client.rxhttpclient;
 
+import be.wegenenverkeer.atomium.api.FeedPage;
 import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.StreamingCodec;
 import be.wegenenverkeer.atomium.client.CachedFeedPage;
 import be.wegenenverkeer.atomium.client.EmptyCachedFeedPage;
 import be.wegenenverkeer.atomium.client.PageFetcher;
@@ -18,6 +20,7 @@ import io.reactivex.rxjava3.core.Single;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.util.Optional;
 
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
@@ -113,7 +116,16 @@ class RxHttpPageFetcher<E> implements PageFetcher<E> {
             logger.debug("Modified, returning feed page");
         }
         Optional<String> newETag = response.getHeader("ETag");
-        return new CachedFeedPage<>(codec.decode(response.getResponseBody()), newETag);
+        return new CachedFeedPage<>(decode(response), newETag);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FeedPage<E> decode(ServerResponse response) {
+        if (codec instanceof StreamingCodec) {
+            // decode the body bytes directly, instead of first decoding them to a String
+            return ((StreamingCodec<FeedPage<E>>) codec).decode(new ByteArrayInputStream(response.getResponseBodyAsBytes()));
+        }
+        return codec.decode(response.getResponseBody());
     }
 
     public static class Builder<E> {
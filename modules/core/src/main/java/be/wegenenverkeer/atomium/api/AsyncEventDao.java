@@ -0,0 +1,9 @@
+package be.wegenenverkeer.atomium.api;
+
+/**
+ * @param <T> entry value type
+ * @see EventDao
+ */
+public interface AsyncEventDao<T> extends AsyncEventWriter<T>, AsyncEventReader<T> {
+
+}
@@ -0,0 +1,18 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reads {@code Event}s from a store without blocking the caller
+ *
+ * @param <T> entry value type
+ * @see EventReader
+ */
+public interface AsyncEventReader<T> {
+
+    CompletionStage<List<Event<T>>> getEvents(long startNum, long size);
+
+    CompletionStage<Long> totalNumberOfEvents();
+
+}
@@ -0,0 +1,21 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Writes {@code Event}s to a store without blocking the caller
+ *
+ * @param <T> entry value type
+ * @see EventWriter
+ */
+public interface AsyncEventWriter<T> {
+
+    CompletionStage<Boolean> push(List<Event<T>> events);
+
+    default CompletionStage<Boolean> push(Event<T> event) {
+        return push(Collections.singletonList(event));
+    }
+
+}
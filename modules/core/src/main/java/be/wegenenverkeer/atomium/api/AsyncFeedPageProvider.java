@@ -0,0 +1,32 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Provides a single FeedPage without blocking the caller
+ *
+ * @see FeedPageProvider
+ */
+public interface AsyncFeedPageProvider<T> {
+
+    /**
+     * Returns the requested page
+     * <p>
+     * The returned stage completes exceptionally with an {@code IndexOutOfBoundsException} if the requested page is
+     * beyond the head of the feed.
+     *
+     * @param ref the requested page
+     * @return the {@code FeedPage}
+     */
+    CompletionStage<FeedPage<T>> getFeedPage(FeedPageRef ref);
+
+    /**
+     * Return a reference to the most recent {@code FeedPage}}
+     * <p>
+     * The head-of-feed {@code FeedPage} can be empty
+     *
+     * @return a {@code FeedPageRef} to the most recent {@code FeedPage}
+     */
+    CompletionStage<FeedPageRef> getHeadOfFeedRef();
+
+}
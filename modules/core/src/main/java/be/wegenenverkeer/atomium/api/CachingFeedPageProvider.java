@@ -0,0 +1,184 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@code FeedPageProvider} that caches completed {@code FeedPage}s of another {@code FeedPageProvider}.
+ * <p>
+ * A completed page (see {@link FeedPage#complete()}) never changes, so it can be cached indefinitely. Pages that are
+ * not complete, such as the head of the feed, are always requested from the underlying provider.
+ * <p>
+ * The cache is bounded by the total size of its pages in bytes, as estimated by a weigher function. When the bound is
+ * exceeded, the least recently used pages are evicted.
+ */
+public class CachingFeedPageProvider<T> implements FeedPageProvider<T> {
+
+    final private FeedPageProvider<T> delegate;
+    final private long maxBytes;
+    final private ToLongFunction<FeedPage<T>> weigher;
+    final private LinkedHashMap<FeedPageRef, CachedPage<T>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    final private AtomicLong hits = new AtomicLong();
+    final private AtomicLong misses = new AtomicLong();
+    private long sizeInBytes = 0;
+
+    /**
+     * Creates an instance
+     *
+     * @param delegate the provider of the pages
+     * @param maxBytes the maximum total size of the cached pages
+     * @param weigher  estimates the size of a page in bytes
+     */
+    public CachingFeedPageProvider(FeedPageProvider<T> delegate, long maxBytes, ToLongFunction<FeedPage<T>> weigher) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns a weigher that estimates the size of a page by the size of its UTF-8 encoded representation
+     * <p>
+     * If the codec is a {@link StreamingCodec}, the page is encoded into a stream that only counts the bytes, so the
+     * encoded page is not held in memory.
+     *
+     * @param codec the codec used for encoding
+     * @param <T>   the type of the entry values
+     * @return a weigher function
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ToLongFunction<FeedPage<T>> encodedSize(FeedPageCodec<T, String> codec) {
+        if (codec instanceof StreamingCodec) {
+            StreamingCodec<FeedPage<T>> streamingCodec = (StreamingCodec<FeedPage<T>>) codec;
+            return page -> {
+                CountingOutputStream out = new CountingOutputStream();
+                streamingCodec.encode(page, out);
+                return out.count;
+            };
+        }
+        return page -> utf8Length(codec.encode(page));
+    }
+
+    static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public FeedPage<T> getFeedPage(FeedPageRef ref) {
+        synchronized (cache) {
+            CachedPage<T> cached = cache.get(ref);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.page;
+            }
+        }
+        misses.incrementAndGet();
+        FeedPage<T> page = delegate.getFeedPage(ref);
+        if (page.complete()) {
+            put(ref, page);
+        }
+        return page;
+    }
+
+    @Override
+    public FeedPageRef getHeadOfFeedRef() {
+        return delegate.getHeadOfFeedRef();
+    }
+
+    private void put(FeedPageRef ref, FeedPage<T> page) {
+        long weight = weigher.applyAsLong(page);
+        if (weight > maxBytes) return;
+        synchronized (cache) {
+            CachedPage<T> previous = cache.put(ref, new CachedPage<>(page, weight));
+            if (previous != null) {
+                sizeInBytes -= previous.weight;
+            }
+            sizeInBytes += weight;
+            Iterator<Map.Entry<FeedPageRef, CachedPage<T>>> it = cache.entrySet().iterator();
+            while (sizeInBytes > maxBytes && it.hasNext()) {
+                sizeInBytes -= it.next().getValue().weight;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all pages from the cache
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    /**
+     * Returns the estimated total size of the cached pages
+     *
+     * @return the estimated total size of the cached pages, in bytes
+     */
+    public long getSizeInBytes() {
+        synchronized (cache) {
+            return sizeInBytes;
+        }
+    }
+
+    /**
+     * Returns the number of requests served from the cache
+     *
+     * @return the number of requests served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests passed to the underlying provider
+     *
+     * @return the number of requests passed to the underlying provider
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private static class CachedPage<T> {
+        final FeedPage<T> page;
+        final long weight;
+
+        CachedPage(FeedPage<T> page, long weight) {
+            this.page = page;
+            this.weight = weight;
+        }
+    }
+}
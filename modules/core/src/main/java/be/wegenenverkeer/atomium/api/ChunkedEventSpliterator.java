@@ -0,0 +1,43 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A {@code Spliterator} that reads a range of events in chunks from an {@code EventReader}.
+ */
+class ChunkedEventSpliterator<T> extends Spliterators.AbstractSpliterator<Event<T>> {
+
+    final private EventReader<T> reader;
+    final private long end;
+    final private int chunkSize;
+    private long next;
+    private Iterator<Event<T>> chunk;
+    private boolean exhausted = false;
+
+    ChunkedEventSpliterator(EventReader<T> reader, long startNum, long size, int chunkSize) {
+        super(size, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.reader = reader;
+        this.next = startNum;
+        this.end = startNum + size;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event<T>> action) {
+        while (chunk == null || !chunk.hasNext()) {
+            if (exhausted || next >= end) return false;
+            long requested = Math.min(chunkSize, end - next);
+            List<Event<T>> events = reader.getEvents(next, requested);
+            // a short chunk means we have reached the end of the feed
+            exhausted = events.size() < requested;
+            next += events.size();
+            chunk = events.iterator();
+        }
+        action.accept(chunk.next());
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@code FeedPageProvider} that coalesces concurrent requests for the same page.
+ * <p>
+ * When a page is requested while a request for the same {@link FeedPageRef} is already in flight, the new request
+ * waits for, and shares, the result of the request in flight instead of computing the page again. The same applies
+ * to requests for the head of the feed.
+ * <p>
+ * Note that coalesced requests receive the same {@code FeedPage} instance.
+ */
+public class CoalescingFeedPageProvider<T> implements FeedPageProvider<T> {
+
+    final private FeedPageProvider<T> delegate;
+    final private ConcurrentHashMap<FeedPageRef, CompletableFuture<FeedPage<T>>> inFlight = new ConcurrentHashMap<>();
+    final private AtomicReference<CompletableFuture<FeedPageRef>> headInFlight = new AtomicReference<>();
+    final private AtomicLong requests = new AtomicLong();
+    final private AtomicLong coalesced = new AtomicLong();
+
+    public CoalescingFeedPageProvider(FeedPageProvider<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public FeedPage<T> getFeedPage(FeedPageRef ref) {
+        requests.incrementAndGet();
+        CompletableFuture<FeedPage<T>> mine = new CompletableFuture<>();
+        CompletableFuture<FeedPage<T>> existing = inFlight.putIfAbsent(ref, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return join(existing);
+        }
+        try {
+            FeedPage<T> page = delegate.getFeedPage(ref);
+            mine.complete(page);
+            return page;
+        } catch (Throwable t) {
+            // also on an Error, so that the waiting requests are released
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(ref, mine);
+        }
+    }
+
+    @Override
+    public FeedPageRef getHeadOfFeedRef() {
+        requests.incrementAndGet();
+        CompletableFuture<FeedPageRef> mine = new CompletableFuture<>();
+        if (!headInFlight.compareAndSet(null, mine)) {
+            CompletableFuture<FeedPageRef> existing = headInFlight.get();
+            if (existing != null) {
+                coalesced.incrementAndGet();
+                return join(existing);
+            }
+            return delegate.getHeadOfFeedRef();
+        }
+        try {
+            FeedPageRef ref = delegate.getHeadOfFeedRef();
+            mine.complete(ref);
+            return ref;
+        } catch (Throwable t) {
+            // also on an Error, so that the waiting requests are released
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            headInFlight.compareAndSet(mine, null);
+        }
+    }
+
+    /**
+     * Returns the total number of requests
+     *
+     * @return the total number of page and head-of-feed requests
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of requests that shared the result of a request already in flight
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
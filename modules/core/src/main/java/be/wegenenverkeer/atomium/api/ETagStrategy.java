@@ -0,0 +1,31 @@
+package be.wegenenverkeer.atomium.api;
+
+/**
+ * Computes the ETag of a {@code FeedPage}.
+ * <p>
+ * Use {@link FeedPage#getETag(ETagStrategy)} to compute the ETag at most once per page.
+ */
+public interface ETagStrategy {
+
+    /**
+     * The MD5 digest of the base, id and updated timestamp of the page, and of its links and the ids and updated
+     * timestamps of its entries. This is the ETag returned by {@link FeedPage#calcETag()}.
+     */
+    ETagStrategy MD5 = new Md5ETagStrategy();
+
+    /**
+     * A 64-bit non-cryptographic hash of the same data as {@link #MD5}.
+     */
+    ETagStrategy FAST_HASH = new HashETagStrategy();
+
+    /**
+     * A 64-bit non-cryptographic hash of the structural facts that determine the content of a page: its base, self link
+     * and updated timestamp, whether it is complete, its number of entries, and the id and updated timestamp of its most
+     * recent entry. Its cost does not depend on the number of entries, but it assumes that entries are only ever appended to a
+     * page, as is the case for pages built from an {@code EventReader}.
+     */
+    ETagStrategy STRUCTURAL = new StructuralETagStrategy();
+
+    String calcETag(FeedPage<?> page);
+
+}
@@ -1,14 +1,38 @@
 package be.wegenenverkeer.atomium.api;
 
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 14/12/16.
  */
 public interface EventReader<T> {
 
+    /**
+     * The number of events read per call to {@link #getEvents(long, long)} by the default {@link #streamEvents(long, long)}
+     */
+    int DEFAULT_STREAM_CHUNK_SIZE = 1000;
+
     List<Event<T>> getEvents(long startNum, long size);
 
     Long totalNumberOfEvents();
 
+    /**
+     * Returns the events in the requested range as a lazily evaluated {@code Stream}.
+     * <p>
+     * This is intended for scans over large ranges, e.g. exports or reprocessing, that should run in constant memory.
+     * The default implementation reads the range in chunks using {@link #getEvents(long, long)}. Implementations can
+     * override this to use a more efficient mechanism, such as a database cursor.
+     * <p>
+     * The returned stream may hold resources, and should be closed after use (e.g. using try-with-resources).
+     *
+     * @param startNum the sequence number of the first event
+     * @param size     the maximum number of events
+     * @return the events in the range, in order of sequence number
+     */
+    default Stream<Event<T>> streamEvents(long startNum, long size) {
+        return StreamSupport.stream(new ChunkedEventSpliterator<>(this, startNum, size, DEFAULT_STREAM_CHUNK_SIZE), false);
+    }
+
 }
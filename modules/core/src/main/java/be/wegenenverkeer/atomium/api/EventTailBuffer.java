@@ -0,0 +1,225 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A ring buffer that holds the most recent indexed events of a feed.
+ * <p>
+ * Events are identified by their sequence number. The buffer holds a contiguous range of events, from
+ * {@link #getFirstSequenceNo()} up to (but excluding) {@link #getEndSequenceNo()}. When the buffer is full, appending
+ * events drops the oldest ones.
+ * <p>
+ * The buffer can be filled directly by a writer that knows the sequence numbers of its events, or it can catch up with
+ * an {@code EventReader}, e.g. on a head-of-feed notification.
+ * <p>
+ * The buffer also keeps the most recent head of the feed it was told about, so that it knows whether it lags behind the
+ * store without asking the store.
+ */
+public class EventTailBuffer<T> {
+
+    final private Object[] ring;
+    final private ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean initialized = false;
+    private long first = 0;
+    private long end = 0;
+    private long head = 0;
+
+    /**
+     * Creates an instance
+     * <p>
+     * To serve the head of the feed and the page before it, the capacity should be at least twice the page size plus one.
+     *
+     * @param capacity the maximum number of events in the buffer
+     */
+    public EventTailBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be strictly positive");
+        this.ring = new Object[capacity];
+    }
+
+    /**
+     * Appends events to the buffer.
+     * <p>
+     * Events that are already in the buffer are ignored. If the events do not connect to the events in the buffer, the
+     * buffer is reset to hold only the new events.
+     *
+     * @param startSeqNo the sequence number of the first event
+     * @param events     the events, in order of sequence number
+     */
+    public void append(long startSeqNo, List<Event<T>> events) {
+        lock.writeLock().lock();
+        try {
+            if (!initialized || startSeqNo > end) {
+                initialized = true;
+                first = startSeqNo;
+                end = startSeqNo;
+            }
+            // skip the events that are already in the buffer
+            int from = (int) Math.min(events.size(), end - startSeqNo);
+            if (events.size() - from > ring.length) {
+                // only the last ring.length events can be retained
+                from = events.size() - ring.length;
+                first = startSeqNo + from;
+                end = first;
+            }
+            for (int i = from; i < events.size(); i++) {
+                ring[slot(end)] = events.get(i);
+                end++;
+            }
+            first = Math.max(first, end - ring.length);
+            head = Math.max(head, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the head of the feed, without reading the events up to it.
+     * <p>
+     * Until the buffer has caught up with the head, ranges that extend beyond the end of the buffer are not served by
+     * {@link #getCurrentEvents(long, long)}.
+     *
+     * @param totalNumberOfEvents the total number of events in the feed
+     */
+    public void markHead(long totalNumberOfEvents) {
+        lock.writeLock().lock();
+        try {
+            head = Math.max(head, totalNumberOfEvents);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the events that are missing in the buffer from an {@code EventReader}.
+     * <p>
+     * The head is recorded before the events are read, so that the buffer is known to lag behind the store while the
+     * events are read.
+     *
+     * @param source              the reader
+     * @param totalNumberOfEvents the total number of events in the feed
+     * @return the number of events read
+     */
+    public long catchUp(EventReader<T> source, long totalNumberOfEvents) {
+        long from;
+        lock.writeLock().lock();
+        try {
+            head = Math.max(head, totalNumberOfEvents);
+            if (initialized && totalNumberOfEvents <= end) return 0;
+            long fromOldest = Math.max(0, totalNumberOfEvents - ring.length);
+            from = initialized ? Math.max(end, fromOldest) : fromOldest;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Event<T>> events = source.getEvents(from, totalNumberOfEvents - from);
+        append(from, events);
+        return events.size();
+    }
+
+    /**
+     * Returns the events in the requested range, if the start of the range is in the buffer
+     * <p>
+     * The range may extend beyond the end of the buffer, in which case the events up to the end of the buffer are
+     * returned.
+     *
+     * @param startNum the sequence number of the first requested event
+     * @param size     the number of requested events
+     * @return the events, or empty if the first requested event is not in the buffer
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<List<Event<T>>> getEvents(long startNum, long size) {
+        lock.readLock().lock();
+        try {
+            if (!initialized || startNum < first || startNum >= end) return Optional.empty();
+            long until = Math.min(end, startNum + size);
+            List<Event<T>> events = new ArrayList<>((int) (until - startNum));
+            for (long seq = startNum; seq < until; seq++) {
+                events.add((Event<T>) ring[slot(seq)]);
+            }
+            return Optional.of(events);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the events in the requested range, if the buffer holds all of them
+     * <p>
+     * A range that extends beyond the end of the buffer is served only when the buffer has caught up with the most
+     * recent head it was told about, in which case the events up to the end of the buffer are returned.
+     *
+     * @param startNum the sequence number of the first requested event
+     * @param size     the number of requested events
+     * @return the events, or empty if the buffer doesn't hold all of them
+     */
+    public Optional<List<Event<T>>> getCurrentEvents(long startNum, long size) {
+        lock.readLock().lock();
+        try {
+            if (startNum + size > end && end < head) return Optional.empty();
+            return getEvents(startNum, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the oldest event in the buffer
+     *
+     * @return the sequence number of the oldest event in the buffer
+     */
+    public long getFirstSequenceNo() {
+        lock.readLock().lock();
+        try {
+            return first;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number following the most recent event in the buffer
+     *
+     * @return the sequence number following the most recent event in the buffer
+     */
+    public long getEndSequenceNo() {
+        lock.readLock().lock();
+        try {
+            return end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of events in the buffer
+     *
+     * @return the maximum number of events in the buffer
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Removes all events from the buffer
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            initialized = false;
+            first = 0;
+            end = 0;
+            head = 0;
+            Arrays.fill(ring, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % ring.length);
+    }
+}
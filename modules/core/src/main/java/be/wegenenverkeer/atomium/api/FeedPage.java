@@ -7,10 +7,6 @@ import be.wegenenverkeer.atomium.format.Link;
 
 import jakarta.xml.bind.annotation.*;
 import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
-import java.io.UnsupportedEncodingException;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -68,12 +64,15 @@ public final class FeedPage<T> {
     @XmlElement(name = "entry")
     private List<Entry<T>> entries = new ArrayList<>();
 
+    private volatile MemoizedETag memoizedETag;
+
     public String getId() {
         return id;
     }
 
     public void setId(String id) {
         this.id = id;
+        this.memoizedETag = null;
     }
 
     public String getBase() {
@@ -82,6 +81,7 @@ public final class FeedPage<T> {
 
     public void setBase(String base) {
         this.base = base;
+        this.memoizedETag = null;
     }
 
     public String getTitle() {
@@ -106,6 +106,7 @@ public final class FeedPage<T> {
 
     public void setUpdated(OffsetDateTime updated) {
         this.updated = updated;
+        this.memoizedETag = null;
     }
 
     public List<Link> getLinks() {
@@ -114,6 +115,7 @@ public final class FeedPage<T> {
 
     public void setLinks(List<Link> links) {
         this.links = links;
+        this.memoizedETag = null;
     }
 
     public List<Entry<T>> getEntries() {
@@ -122,6 +124,7 @@ public final class FeedPage<T> {
 
     public void setEntries(List<Entry<T>> entries) {
         this.entries = entries;
+        this.memoizedETag = null;
     }
 
 
@@ -165,34 +168,26 @@ public final class FeedPage<T> {
     }
 
     public String calcETag() {
-        try {
-            MessageDigest message = MessageDigest.getInstance("MD5");
-            String utf = "UTF-8";
-            updateMessage(message, this.base);
-            updateMessage(message, this.id);
-            updateMessage(message, this.updated.toString());
-            links.stream().forEach(link ->
-                    updateMessage(message, link.toString())
-            );
-            entries.stream().forEach(entry -> {
-                        updateMessage(message, entry.getId());
-                        updateMessage(message, entry.getUpdated().toString());
-                        return;
-                    }
-            );
-            return new BigInteger(1, message.digest()).toString(16);
-        } catch (NoSuchAlgorithmException e) {
-            // then don't return ETag
-            return "";
-        }
+        return ETagStrategy.MD5.calcETag(this);
     }
 
-    private void updateMessage(MessageDigest digest, String el) {
-        try {
-            digest.update(el.getBytes("UTF-8"));
-        } catch (UnsupportedEncodingException e) {
-            // don't update
+    /**
+     * Returns the ETag of this page, computed with the strategy.
+     * <p>
+     * The ETag is computed once and then memoized, until the id, base, updated timestamp, links or entries are replaced
+     * through their setters. Changes to the lists of links or entries are not detected, so pages should not be modified
+     * after their ETag is requested.
+     *
+     * @param strategy the strategy to compute the ETag
+     * @return the ETag
+     */
+    public String getETag(ETagStrategy strategy) {
+        MemoizedETag memo = this.memoizedETag;
+        if (memo == null || memo.strategy != strategy) {
+            memo = new MemoizedETag(strategy, strategy.calcETag(this));
+            this.memoizedETag = memo;
         }
+        return memo.etag;
     }
 
     @Override
@@ -237,4 +232,14 @@ public final class FeedPage<T> {
                 ", entries=" + entries +
                 '}';
     }
+
+    private static final class MemoizedETag {
+        final ETagStrategy strategy;
+        final String etag;
+
+        MemoizedETag(ETagStrategy strategy, String etag) {
+            this.strategy = strategy;
+            this.etag = etag;
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package be.wegenenverkeer.atomium.api;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 14/12/16.
@@ -9,20 +11,56 @@ public class FeedPageProviderAdapters {
 
     public static <T> FeedPageProvider<T> adapt(EventReader<T> eventReader, FeedMetadata meta) {
 
-        return new DaoBackedFeeedPageProvider<>(eventReader, meta);
+        return new DaoBackedFeeedPageProvider<>(eventReader, meta, null);
 
     }
 
+    /**
+     * Adapts an {@code EventReader} to a {@code FeedPageProvider} that determines the head of the feed using a
+     * {@code HeadOfFeedCache}.
+     * <p>
+     * Note that a request for a page that was created after the cached value was loaded, is rejected until the cached
+     * value is refreshed or updated.
+     *
+     * @param eventReader the {@code EventReader}
+     * @param meta        the feed metadata
+     * @param headCache   the cache for the head of the feed
+     * @param <T>         the type of the event values
+     * @return a {@code FeedPageProvider}
+     */
+    public static <T> FeedPageProvider<T> adapt(EventReader<T> eventReader, FeedMetadata meta, HeadOfFeedCache headCache) {
+
+        return new DaoBackedFeeedPageProvider<>(eventReader, meta, headCache);
+
+    }
+
+    /**
+     * Adapts an {@code AsyncEventReader} to an {@code AsyncFeedPageProvider}.
+     * <p>
+     * The reads are composed on completion of the previous read, so no thread is blocked while waiting for the store.
+     *
+     * @param eventReader the {@code AsyncEventReader}
+     * @param meta        the feed metadata
+     * @param <T>         the type of the event values
+     * @return an {@code AsyncFeedPageProvider}
+     */
+    public static <T> AsyncFeedPageProvider<T> adaptAsync(AsyncEventReader<T> eventReader, FeedMetadata meta) {
+
+        return new AsyncDaoBackedFeedPageProvider<>(eventReader, meta);
+
+    }
 
     static class DaoBackedFeeedPageProvider<T> implements FeedPageProvider<T> {
 
         final private EventReader<T> eventReader;
         final private FeedMetadata metadata;
+        final private HeadOfFeedCache headCache;
 
 
-        DaoBackedFeeedPageProvider(EventReader<T> dao, FeedMetadata meta) {
+        DaoBackedFeeedPageProvider(EventReader<T> dao, FeedMetadata meta, HeadOfFeedCache headCache) {
             this.eventReader = dao;
             this.metadata = meta;
+            this.headCache = headCache;
         }
 
         private FeedPage<T> mkFeedPage(FeedPageRef requestedPage) {
@@ -55,10 +93,42 @@ public class FeedPageProviderAdapters {
          */
         @Override
         public FeedPageRef getHeadOfFeedRef() {
-            return FeedPageRef.page(eventReader.totalNumberOfEvents() / metadata.getPageSize());
+            long totalNumberOfEvents = headCache == null ?
+                    eventReader.totalNumberOfEvents() :
+                    headCache.get(eventReader::totalNumberOfEvents);
+            return FeedPageRef.page(totalNumberOfEvents / metadata.getPageSize());
         }
     }
 
+    static class AsyncDaoBackedFeedPageProvider<T> implements AsyncFeedPageProvider<T> {
 
-}
+        final private AsyncEventReader<T> eventReader;
+        final private FeedMetadata metadata;
 
+        AsyncDaoBackedFeedPageProvider(AsyncEventReader<T> eventReader, FeedMetadata meta) {
+            this.eventReader = eventReader;
+            this.metadata = meta;
+        }
+
+        @Override
+        public CompletionStage<FeedPage<T>> getFeedPage(FeedPageRef ref) {
+            return getHeadOfFeedRef().thenCompose(headOfFeed -> {
+                if (ref.isStrictlyMoreRecentThan(headOfFeed)) {
+                    CompletableFuture<FeedPage<T>> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IndexOutOfBoundsException("Requested page currently beyond head of feed"));
+                    return failed;
+                }
+                long pageSize = metadata.getPageSize();
+                return eventReader.getEvents(ref.getPageNum() * pageSize, pageSize + 1)
+                        .thenApply(events -> new FeedPageBuilder<T>(metadata, ref.getPageNum()).setEvents(events).build());
+            });
+        }
+
+        @Override
+        public CompletionStage<FeedPageRef> getHeadOfFeedRef() {
+            return eventReader.totalNumberOfEvents()
+                    .thenApply(totalNumberOfEvents -> FeedPageRef.page(totalNumberOfEvents / metadata.getPageSize()));
+        }
+    }
+
+}
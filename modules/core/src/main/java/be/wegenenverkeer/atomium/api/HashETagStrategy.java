@@ -0,0 +1,68 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.format.Entry;
+import be.wegenenverkeer.atomium.format.Link;
+
+import java.time.OffsetDateTime;
+
+/**
+ * An ETag based on a 64-bit FNV-1a hash, computed directly over the characters of the page data and the fields of its
+ * timestamps.
+ */
+class HashETagStrategy implements ETagStrategy {
+
+    final static long OFFSET_BASIS = 0xcbf29ce484222325L;
+    final private static long PRIME = 0x100000001b3L;
+
+    @Override
+    public String calcETag(FeedPage<?> page) {
+        long h = OFFSET_BASIS;
+        h = hash(h, page.getBase());
+        h = hash(h, page.getId());
+        h = hash(h, page.getUpdated());
+        for (Link link : page.getLinks()) {
+            h = hash(h, link.getRel());
+            h = hash(h, link.getHref());
+        }
+        for (Entry<?> entry : page.getEntries()) {
+            h = hash(h, entry.getId());
+            h = hash(h, entry.getUpdated());
+        }
+        return toETag(h);
+    }
+
+    /**
+     * Adds the string, followed by a separator, to the hash
+     */
+    static long hash(long h, String str) {
+        if (str != null) {
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                h = (h ^ (c & 0xff)) * PRIME;
+                h = (h ^ (c >>> 8)) * PRIME;
+            }
+        }
+        return hash(h, 0xffffL);
+    }
+
+    /**
+     * Adds the timestamp to the hash, without formatting it
+     */
+    static long hash(long h, OffsetDateTime time) {
+        h = hash(h, time.toEpochSecond());
+        h = hash(h, time.getNano());
+        return hash(h, time.getOffset().getTotalSeconds());
+    }
+
+    static long hash(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ ((value >>> (8 * i)) & 0xff)) * PRIME;
+        }
+        return h;
+    }
+
+    static String toETag(long h) {
+        String hex = Long.toHexString(h);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,94 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the total number of events in a feed, which determines the head of the feed.
+ * <p>
+ * A cached value is used for at most the configured staleness bound. When it expires, the first request reloads it
+ * while concurrent requests wait for the result, so the (expensive) count is loaded at most once per interval,
+ * regardless of the number of concurrent requests.
+ * <p>
+ * Writers and indexers can keep the cache up-to-date between reloads with {@link #update(long)} or
+ * {@link #updateHeadSequenceNo(long)}, or force a reload on the next request with {@link #invalidate()}.
+ */
+public class HeadOfFeedCache {
+
+    final private long maxStalenessNanos;
+    final private Object lock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates an instance
+     *
+     * @param maxStaleness the maximum time a cached value is used before it is reloaded
+     */
+    public HeadOfFeedCache(Duration maxStaleness) {
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    /**
+     * Returns the cached total number of events, loading it if the cached value is missing or expired
+     *
+     * @param loader loads the total number of events
+     * @return the total number of events
+     */
+    public long get(LongSupplier loader) {
+        Snapshot current = snapshot;
+        if (isFresh(current)) return current.totalNumberOfEvents;
+        synchronized (lock) {
+            current = snapshot;
+            if (isFresh(current)) return current.totalNumberOfEvents;
+            long loaded = loader.getAsLong();
+            snapshot = new Snapshot(loaded, System.nanoTime());
+            return loaded;
+        }
+    }
+
+    /**
+     * Sets the total number of events, if it is larger than the cached value
+     *
+     * @param totalNumberOfEvents the total number of events
+     */
+    public void update(long totalNumberOfEvents) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current == null || current.totalNumberOfEvents <= totalNumberOfEvents) {
+                snapshot = new Snapshot(totalNumberOfEvents, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Sets the sequence number of the most recent event
+     * <p>
+     * This can be used to subscribe the cache to head-of-feed notifications.
+     *
+     * @param headSequenceNo the highest assigned sequence number
+     */
+    public void updateHeadSequenceNo(long headSequenceNo) {
+        update(headSequenceNo + 1);
+    }
+
+    /**
+     * Discards the cached value, so that the next request reloads it
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private boolean isFresh(Snapshot s) {
+        return s != null && System.nanoTime() - s.loadedAt < maxStalenessNanos;
+    }
+
+    private static class Snapshot {
+        final long totalNumberOfEvents;
+        final long loadedAt;
+
+        Snapshot(long totalNumberOfEvents, long loadedAt) {
+            this.totalNumberOfEvents = totalNumberOfEvents;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
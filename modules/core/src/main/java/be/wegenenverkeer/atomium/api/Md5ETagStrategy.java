@@ -0,0 +1,68 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.format.Entry;
+import be.wegenenverkeer.atomium.format.Link;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The MD5 digest ETag.
+ * <p>
+ * The digest instances are reused per thread, and the hexadecimal representation is formatted without leading zeros,
+ * as in the original implementation, so that ETags remain stable across versions.
+ */
+class Md5ETagStrategy implements ETagStrategy {
+
+    final private static char[] HEX = "0123456789abcdef".toCharArray();
+
+    final private static ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    });
+
+    @Override
+    public String calcETag(FeedPage<?> page) {
+        MessageDigest digest = digests.get();
+        if (digest == null) {
+            // then don't return ETag
+            return "";
+        }
+        digest.reset();
+        update(digest, page.getBase());
+        update(digest, page.getId());
+        update(digest, page.getUpdated().toString());
+        for (Link link : page.getLinks()) {
+            update(digest, link.toString());
+        }
+        for (Entry<?> entry : page.getEntries()) {
+            update(digest, entry.getId());
+            update(digest, entry.getUpdated().toString());
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String el) {
+        digest.update(el.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Formats the bytes as an unsigned hexadecimal number, without leading zeros
+     */
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        int start = 0;
+        while (start < chars.length - 1 && chars[start] == '0') {
+            start++;
+        }
+        return new String(chars, start, chars.length - start);
+    }
+}
@@ -0,0 +1,66 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A JSON value in its serialized, UTF-8 encoded form.
+ * <p>
+ * Use this as event value type to pass stored JSON payloads through to the feed without decoding and re-encoding them.
+ * The bytes are not validated: they must hold a single, well-formed JSON value.
+ */
+public final class RawJson {
+
+    final private byte[] bytes;
+
+    private RawJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param utf8 the UTF-8 encoded JSON value. The array is not copied, and must not be modified afterwards
+     * @return a {@code RawJson}
+     */
+    public static RawJson of(byte[] utf8) {
+        if (utf8 == null) throw new IllegalArgumentException("Null value not allowed");
+        return new RawJson(utf8);
+    }
+
+    public static RawJson of(String json) {
+        if (json == null) throw new IllegalArgumentException("Null value not allowed");
+        return new RawJson(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the UTF-8 encoded JSON value. The array must not be modified.
+     *
+     * @return the UTF-8 encoded JSON value
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(bytes, ((RawJson) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Returns the JSON value
+     *
+     * @return the JSON value
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A codec that encodes to an {@code OutputStream}, and decodes from an {@code InputStream}.
+ * <p>
+ * This avoids the intermediate {@code String} (and the copies between {@code String} and bytes) of a
+ * {@code Codec<V, String>} when values are read from, or written to, the network.
+ *
+ * @param <V> the value type
+ */
+public interface StreamingCodec<V> {
+
+    String getMimeType();
+
+    /**
+     * Encodes the value to the stream. The stream is not closed.
+     *
+     * @param value the value to encode
+     * @param out   the stream to write to
+     */
+    void encode(V value, OutputStream out);
+
+    /**
+     * Decodes a value from the stream. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the decoded value
+     */
+    V decode(InputStream in);
+
+    /**
+     * Encodes the value into a {@code ByteBuffer}, without copying the encoded bytes.
+     *
+     * @param value the value to encode
+     * @return a heap buffer holding the encoded value, between its position and limit
+     */
+    default ByteBuffer encodeToByteBuffer(V value) {
+        class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+            ExposedByteArrayOutputStream() {
+                super(8192);
+            }
+
+            ByteBuffer toByteBuffer() {
+                return ByteBuffer.wrap(buf, 0, count);
+            }
+        }
+        ExposedByteArrayOutputStream out = new ExposedByteArrayOutputStream();
+        encode(value, out);
+        return out.toByteBuffer();
+    }
+
+}
@@ -0,0 +1,29 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.format.Entry;
+import be.wegenenverkeer.atomium.format.Link;
+
+import static be.wegenenverkeer.atomium.api.HashETagStrategy.hash;
+
+/**
+ * An ETag derived from the structural facts of a page, in constant time.
+ */
+class StructuralETagStrategy implements ETagStrategy {
+
+    @Override
+    public String calcETag(FeedPage<?> page) {
+        long h = HashETagStrategy.OFFSET_BASIS;
+        h = hash(h, page.getBase());
+        h = hash(h, page.findLinkByName(Link.SELF).map(Link::getHref).orElse(page.getId()));
+        h = hash(h, page.getUpdated());
+        h = hash(h, page.complete() ? 1L : 0L);
+        h = hash(h, page.getEntries().size());
+        if (!page.getEntries().isEmpty()) {
+            // entries are ordered from most recent to least recent
+            Entry<?> mostRecent = page.getEntries().get(0);
+            h = hash(h, mostRecent.getId());
+            h = hash(h, mostRecent.getUpdated());
+        }
+        return HashETagStrategy.toETag(h);
+    }
+}
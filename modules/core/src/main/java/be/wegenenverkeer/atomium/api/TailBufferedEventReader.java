@@ -0,0 +1,77 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@code EventReader} that serves recent events from an {@code EventTailBuffer}, and falls back to another
+ * {@code EventReader} for older events.
+ * <p>
+ * Adapted to a {@code FeedPageProvider} (see {@link FeedPageProviderAdapters}), this serves the head of the feed and the
+ * page before it from memory, provided the buffer capacity is at least twice the page size plus one.
+ * <p>
+ * The buffer is not filled by this reader. It should be kept up-to-date by the writer, or by subscribing it to head-of-feed
+ * notifications, e.g.:
+ * <pre>
+ *     listener.subscribe(head -&gt; buffer.catchUp(reader, head + 1));
+ * </pre>
+ * The head of the feed is served as of the most recent update of the buffer.
+ */
+public class TailBufferedEventReader<T> implements EventReader<T> {
+
+    final private EventReader<T> delegate;
+    final private EventTailBuffer<T> buffer;
+    final private AtomicLong hits = new AtomicLong();
+    final private AtomicLong misses = new AtomicLong();
+
+    public TailBufferedEventReader(EventReader<T> delegate, EventTailBuffer<T> buffer) {
+        this.delegate = delegate;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the events from the buffer if it holds the complete range, and from the underlying reader otherwise.
+     * <p>
+     * A range that extends beyond the end of the buffer, e.g. the head page, is served from the buffer when it has
+     * caught up with the most recent head it was told about (see {@link EventTailBuffer#markHead(long)}). The underlying
+     * reader is not asked for the total number of events.
+     */
+    @Override
+    public List<Event<T>> getEvents(long startNum, long size) {
+        Optional<List<Event<T>>> buffered = buffer.getCurrentEvents(startNum, size);
+        if (buffered.isPresent()) {
+            hits.incrementAndGet();
+            return buffered.get();
+        }
+        misses.incrementAndGet();
+        return delegate.getEvents(startNum, size);
+    }
+
+    @Override
+    public Long totalNumberOfEvents() {
+        return delegate.totalNumberOfEvents();
+    }
+
+    public EventTailBuffer<T> getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of reads served from the buffer
+     *
+     * @return the number of reads served from the buffer
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of reads passed to the underlying reader
+     *
+     * @return the number of reads passed to the underlying reader
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,130 @@
+package be.wegenenverkeer.atomium.api;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * An {@code EventDao} that keeps the most recent events of a backing {@code EventDao} in memory.
+ * <p>
+ * Writes go through to the backing store. Reads go through a {@link TailBufferedEventReader}: ranges that are covered
+ * by the in-memory tail (an {@link EventTailBuffer}) are answered from memory; other reads go to the backing store.
+ * <p>
+ * The tail is filled on reads rather than on writes, since the backing store may assign sequence numbers only later
+ * (e.g. when a JDBC store indexes its events). The first read, and the first read after a write through this DAO, catch
+ * up the tail with the backing store. Other reads don't query the backing store to find the head: events that are
+ * written elsewhere, or indexed later, are picked up by subscribing the tail to head-of-feed notifications, e.g.:
+ * <pre>
+ *     listener.subscribe(head -&gt; dao.getTail().catchUp(backing, head + 1));
+ * </pre>
+ * <p>
+ * Large scans using {@link #streamEvents(long, long)} bypass the tail.
+ */
+public class TieredEventDao<T> implements EventDao<T> {
+
+    final private EventDao<T> backing;
+    final private EventTailBuffer<T> tail;
+    final private TailBufferedEventReader<T> reader;
+    final private AtomicBoolean stale = new AtomicBoolean(true);
+
+    /**
+     * Creates an instance
+     * <p>
+     * To serve the head of the feed and the page before it from memory, the capacity should be at least twice the page
+     * size plus one.
+     *
+     * @param backing  the backing store
+     * @param capacity the number of most recent events to keep in memory
+     */
+    public TieredEventDao(EventDao<T> backing, int capacity) {
+        this(backing, new EventTailBuffer<>(capacity));
+    }
+
+    public TieredEventDao(EventDao<T> backing, EventTailBuffer<T> tail) {
+        this.backing = backing;
+        this.tail = tail;
+        this.reader = new TailBufferedEventReader<>(backing, tail);
+    }
+
+    @Override
+    public boolean push(List<Event<T>> events) {
+        try {
+            return backing.push(events);
+        } finally {
+            stale.set(true);
+        }
+    }
+
+    @Override
+    public boolean push(Event<T> event) {
+        return push(Collections.singletonList(event));
+    }
+
+    @Override
+    public List<Event<T>> getEvents(long startNum, long size) {
+        if (stale.getAndSet(false)) {
+            try {
+                tail.catchUp(backing, backing.totalNumberOfEvents());
+            } catch (RuntimeException e) {
+                stale.set(true);
+                throw e;
+            }
+        }
+        return reader.getEvents(startNum, size);
+    }
+
+    @Override
+    public Long totalNumberOfEvents() {
+        return backing.totalNumberOfEvents();
+    }
+
+    @Override
+    public Stream<Event<T>> streamEvents(long startNum, long size) {
+        return backing.streamEvents(startNum, size);
+    }
+
+    public EventTailBuffer<T> getTail() {
+        return tail;
+    }
+
+    /**
+     * Returns the number of reads served from memory
+     *
+     * @return the number of reads served from memory
+     */
+    public long getHitCount() {
+        return reader.getHitCount();
+    }
+
+    /**
+     * Returns the number of reads passed to the backing store
+     *
+     * @return the number of reads passed to the backing store
+     */
+    public long getMissCount() {
+        return reader.getMissCount();
+    }
+
+    /**
+     * Returns the fraction of reads served from memory
+     *
+     * @return the fraction of reads served from memory, or 0 if there were no reads
+     */
+    public double getHitRatio() {
+        long h = getHitCount();
+        long total = h + getMissCount();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Returns the fraction of reads passed to the backing store
+     *
+     * @return the fraction of reads passed to the backing store, or 0 if there were no reads
+     */
+    public double getMissRatio() {
+        long m = getMissCount();
+        long total = m + getHitCount();
+        return total == 0 ? 0.0 : (double) m / total;
+    }
+}
@@ -5,19 +5,29 @@ import org.w3c.dom.Node;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
 
 public class JAXBElementUnmarshaller<T> {
 
-    private final JAXBContext jaxbContext;
+    private final JaxbPool pool;
     private final Class<T> valueClazz;
 
     public JAXBElementUnmarshaller(JAXBContext jaxbContext, Class<T> valueClazz) {
-        this.jaxbContext = jaxbContext;
+        this(new JaxbPool(jaxbContext), valueClazz);
+    }
+
+    public JAXBElementUnmarshaller(JaxbPool pool, Class<T> valueClazz) {
+        this.pool = pool;
         this.valueClazz = valueClazz;
     }
 
     public JAXBElement<T> unmarshal(Node node) throws JAXBException {
-        return jaxbContext.createUnmarshaller().unmarshal(node, valueClazz);
+        Unmarshaller unmarshaller = pool.borrowUnmarshaller();
+        try {
+            return unmarshaller.unmarshal(node, valueClazz);
+        } finally {
+            pool.release(unmarshaller);
+        }
     }
 
     public T unmarshalValue(Node node) throws JAXBException {
@@ -3,7 +3,11 @@ package be.wegenenverkeer.atomium.format;
 import be.wegenenverkeer.atomium.api.AtomiumDecodeException;
 import be.wegenenverkeer.atomium.api.AtomiumEncodeException;
 import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.StreamingCodec;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -11,12 +15,14 @@ import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.TimeZone;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 13/12/16.
  */
-public class JacksonCodec<T> implements Codec<T, String> {
+public class JacksonCodec<T> implements Codec<T, String>, StreamingCodec<T> {
 
     final protected ObjectMapper mapper;
     protected JavaType javaType;
@@ -33,6 +39,7 @@ public class JacksonCodec<T> implements Codec<T, String> {
         m.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
         m.setTimeZone(TimeZone.getDefault()); //this is required since default TimeZone is GMT in Jackson!
         m.registerModule(new OffsetDateTimeModule());
+        m.registerModule(new RawJsonModule());
         this.mapper = m;
     }
 
@@ -62,4 +69,24 @@ public class JacksonCodec<T> implements Codec<T, String> {
             throw new AtomiumDecodeException(e.getMessage(), e);
         }
     }
+
+    @Override
+    public void encode(T value, OutputStream out) {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper.writeValue(generator, value);
+        } catch (Exception e) {
+            throw new AtomiumEncodeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T decode(InputStream in) {
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return mapper.readValue(parser, javaType);
+        } catch (Exception e) {
+            throw new AtomiumDecodeException(e.getMessage(), e);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package be.wegenenverkeer.atomium.format;
 
 import be.wegenenverkeer.atomium.api.FeedPage;
 import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.RawJson;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 15/11/16.
@@ -11,4 +12,17 @@ public class JacksonFeedPageCodec<T> extends JacksonCodec<FeedPage<T>> implement
         super();
         this.javaType = this.mapper.getTypeFactory().constructParametricType(FeedPage.class, entryTypeMarker);
     }
+
+    /**
+     * Returns a codec for feed pages with {@code RawJson} entry values.
+     * <p>
+     * The entry values are written verbatim into the content of each entry, without being bound. When the page is
+     * encoded to an {@code OutputStream}, the UTF-8 bytes of each value are copied directly into the output; when it is
+     * encoded to a {@code String}, they are decoded once.
+     *
+     * @return a codec for feed pages with {@code RawJson} entry values
+     */
+    public static JacksonFeedPageCodec<RawJson> rawJson() {
+        return new JacksonFeedPageCodec<>(RawJson.class);
+    }
 }
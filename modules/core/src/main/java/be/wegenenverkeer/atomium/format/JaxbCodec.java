@@ -4,27 +4,35 @@ import be.wegenenverkeer.atomium.api.AtomiumDecodeException;
 import be.wegenenverkeer.atomium.api.AtomiumEncodeException;
 import be.wegenenverkeer.atomium.api.FeedPage;
 import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.StreamingCodec;
 import org.xml.sax.InputSource;
 
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 15/11/16.
  */
-public class JaxbCodec<T> implements FeedPageCodec<T,String> {
+public class JaxbCodec<T> implements FeedPageCodec<T,String>, StreamingCodec<FeedPage<T>> {
 
-    private final JAXBContext jaxbContext;
+    private final JaxbPool pool;
 
+    /**
+     * Creates an instance
+     * <p>
+     * The {@code JAXBContext} and the pool of (un)marshallers are shared by all codecs for the same entry type.
+     *
+     * @param entryTypeMarker the entry type
+     */
     public JaxbCodec(Class<T> entryTypeMarker) {
-        try {
-            jaxbContext = JAXBContext.newInstance(FeedPage.class, Link.class, entryTypeMarker);
-        } catch (JAXBException e) {
-            throw new IllegalStateException(e);
-        }
+        this.pool = JaxbPool.forEntryType(entryTypeMarker);
     }
 
     @Override
@@ -34,20 +42,52 @@ public class JaxbCodec<T> implements FeedPageCodec<T,String> {
 
     @Override
     public String encode(FeedPage<T> page) {
+        // marshalled to bytes, so that the result is the same as that of encode(page, out)
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        encode(page, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public FeedPage<T> decode(String encoded) {
+        return unmarshal(new InputSource(new StringReader(encoded)));
+    }
+
+    @Override
+    public void encode(FeedPage<T> page, OutputStream out) {
         try {
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            marshaller.marshal(page, stream);
-            return stream.toString("UTF-8");
-        } catch (Exception e){
+            Marshaller marshaller = pool.borrowMarshaller();
+            try {
+                marshaller.marshal(page, out);
+            } finally {
+                // (un)marshallers can be reused after a failure
+                pool.release(marshaller);
+            }
+        } catch (Exception e) {
             throw new AtomiumEncodeException(e.getMessage(), e);
         }
     }
 
     @Override
-    public FeedPage<T> decode(String encoded) {
+    public FeedPage<T> decode(InputStream in) {
+        // the XML parser closes its input when done
+        InputStream unclosable = new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+        return unmarshal(new InputSource(unclosable));
+    }
+
+    @SuppressWarnings("unchecked")
+    private FeedPage<T> unmarshal(InputSource source) {
         try {
-            return (FeedPage<T>)jaxbContext.createUnmarshaller().unmarshal(new InputSource(new StringReader(encoded)));
+            Unmarshaller unmarshaller = pool.borrowUnmarshaller();
+            try {
+                return (FeedPage<T>) unmarshaller.unmarshal(source);
+            } finally {
+                pool.release(unmarshaller);
+            }
         } catch (JAXBException e) {
             throw new AtomiumDecodeException(e.getMessage(), e);
         }
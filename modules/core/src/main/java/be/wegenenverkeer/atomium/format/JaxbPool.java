@@ -0,0 +1,115 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.FeedPage;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code JAXBContext} with bounded pools of {@code Marshaller}s and {@code Unmarshaller}s.
+ * <p>
+ * Creating a {@code JAXBContext} is expensive, and creating a (un)marshaller is not cheap either, but neither
+ * marshallers nor unmarshallers are thread-safe. A pool hands out an idle instance, or creates a new one when none is
+ * idle, so callers never block. Released instances are kept for reuse, up to the capacity of the pool.
+ * <p>
+ * The pools for feed pages are shared per entry type (see {@link #forEntryType(Class)}).
+ */
+public final class JaxbPool {
+
+    public final static int DEFAULT_CAPACITY = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final static Map<Class<?>, JaxbPool> feedPagePools = new ConcurrentHashMap<>();
+
+    private final JAXBContext context;
+    private final BlockingQueue<Marshaller> marshallers;
+    private final BlockingQueue<Unmarshaller> unmarshallers;
+
+    public JaxbPool(JAXBContext context) {
+        this(context, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param context  the context
+     * @param capacity the maximum number of idle marshallers, and of idle unmarshallers, kept for reuse
+     */
+    public JaxbPool(JAXBContext context, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be strictly positive");
+        this.context = context;
+        this.marshallers = new ArrayBlockingQueue<>(capacity);
+        this.unmarshallers = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns the shared pool for feed pages with the given entry type.
+     * <p>
+     * The {@code JAXBContext} of the pool is bound to {@code FeedPage}, {@code Link} and the entry type, and is created
+     * once per entry type.
+     *
+     * @param entryType the entry type
+     * @return the pool
+     */
+    public static JaxbPool forEntryType(Class<?> entryType) {
+        return feedPagePools.computeIfAbsent(entryType, type -> {
+            try {
+                return new JaxbPool(JAXBContext.newInstance(FeedPage.class, Link.class, type));
+            } catch (JAXBException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns an idle marshaller, or a new one if there is none. The caller has exclusive use of the marshaller until it
+     * is released.
+     *
+     * @return a marshaller
+     * @throws JAXBException when a marshaller can't be created
+     */
+    public Marshaller borrowMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        return marshaller != null ? marshaller : context.createMarshaller();
+    }
+
+    /**
+     * Returns the marshaller to the pool. It should not be used by the caller afterwards.
+     *
+     * @param marshaller the marshaller
+     */
+    public void release(Marshaller marshaller) {
+        marshallers.offer(marshaller);
+    }
+
+    /**
+     * Returns an idle unmarshaller, or a new one if there is none. The caller has exclusive use of the unmarshaller until
+     * it is released.
+     *
+     * @return an unmarshaller
+     * @throws JAXBException when an unmarshaller can't be created
+     */
+    public Unmarshaller borrowUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        return unmarshaller != null ? unmarshaller : context.createUnmarshaller();
+    }
+
+    /**
+     * Returns the unmarshaller to the pool. It should not be used by the caller afterwards.
+     *
+     * @param unmarshaller the unmarshaller
+     */
+    public void release(Unmarshaller unmarshaller) {
+        unmarshallers.offer(unmarshaller);
+    }
+
+}
@@ -0,0 +1,34 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.RawJson;
+
+/**
+ * A codec for stored JSON payloads that does not parse them.
+ * <p>
+ * When used as the value codec of a {@code JdbcEventDaoFactory}, the stored payloads are read as raw bytes, and can
+ * be written verbatim into feed pages by a {@code FeedPageCodec} that supports {@code RawJson} values, such as
+ * {@link JacksonFeedPageCodec#rawJson()}.
+ */
+public final class RawJsonCodec implements Codec<RawJson, String> {
+
+    public static final RawJsonCodec INSTANCE = new RawJsonCodec();
+
+    private RawJsonCodec() {
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/json";
+    }
+
+    @Override
+    public String encode(RawJson value) {
+        return value.toString();
+    }
+
+    @Override
+    public RawJson decode(String encoded) {
+        return RawJson.of(encoded);
+    }
+}
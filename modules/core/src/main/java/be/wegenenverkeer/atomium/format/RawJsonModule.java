@@ -0,0 +1,154 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.RawJson;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Jackson module that writes {@code RawJson} values verbatim, and reads any JSON value into a {@code RawJson}
+ * without binding it.
+ * <p>
+ * A generator that writes bytes copies the UTF-8 bytes of the value directly into its output. A generator that writes
+ * characters, e.g. when a page is encoded to a {@code String}, has to decode them.
+ */
+public class RawJsonModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+
+    public RawJsonModule() {
+        super();
+        addDeserializer(RawJson.class, DESERIALIZER);
+        addSerializer(RawJson.class, SERIALIZER);
+    }
+
+    public static final StdDeserializer<RawJson> DESERIALIZER = new StdDeserializer<RawJson>(RawJson.class) {
+
+        @Override
+        public RawJson deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator gen = jp.getCodec().getFactory().createGenerator(writer)) {
+                gen.copyCurrentStructure(jp);
+            }
+            return RawJson.of(writer.toString());
+        }
+    };
+
+    public static final StdSerializer<RawJson> SERIALIZER = new StdSerializer<RawJson>(RawJson.class) {
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonGenerationException {
+            jgen.writeRawValue(new RawUtf8(value.getBytes()));
+        }
+    };
+
+    /**
+     * Exposes the bytes of a {@code RawJson} to the generator, so that a UTF-8 generator can write them without
+     * decoding them to a {@code String}.
+     */
+    private static final class RawUtf8 implements SerializableString {
+
+        private final byte[] utf8;
+        private String value;
+
+        RawUtf8(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public String getValue() {
+            if (value == null) {
+                value = new String(utf8, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + utf8.length > buffer.length) return -1;
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            String str = getValue();
+            if (offset + str.length() > buffer.length) return -1;
+            str.getChars(0, str.length(), buffer, offset);
+            return str.length();
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (utf8.length > buffer.remaining()) return -1;
+            buffer.put(utf8);
+            return utf8.length;
+        }
+
+        // a raw value is never quoted; these delegate to Jackson's implementation for completeness
+
+        @Override
+        public char[] asQuotedChars() {
+            return quoted().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return quoted().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return quoted().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return quoted().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return quoted().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return quoted().putQuotedUTF8(buffer);
+        }
+
+        private SerializedString quoted() {
+            return new SerializedString(getValue());
+        }
+    }
+
+}
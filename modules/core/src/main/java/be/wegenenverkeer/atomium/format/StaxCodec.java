@@ -0,0 +1,373 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.AtomiumDecodeException;
+import be.wegenenverkeer.atomium.api.AtomiumEncodeException;
+import be.wegenenverkeer.atomium.api.FeedPage;
+import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.StreamingCodec;
+import be.wegenenverkeer.atomium.format.pub.AtomPubEntry;
+import be.wegenenverkeer.atomium.format.pub.Control;
+import be.wegenenverkeer.atomium.format.pub.Draft;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A codec for Atom XML feed pages that reads and writes the feed envelope with StAX.
+ * <p>
+ * The feed, link, entry and content elements (and the {@code app:edited} and {@code app:control} elements of AtomPub
+ * entries) are read and written directly, which avoids the reflective binding of JAXB for everything except the
+ * entry values. These are read and written by an {@link XmlValueCodec}.
+ * <p>
+ * {@code String} values are read and written with StAX as well. Values of other types are bound with JAXB by default,
+ * one entry at a time, so that the JAXB cost per entry remains; provide an {@code XmlValueCodec} for the value type to
+ * avoid it.
+ * <p>
+ * The encoding is the same as that of {@link JaxbCodec}, so pages encoded by the one can be decoded by the other.
+ */
+public class StaxCodec<T> implements FeedPageCodec<T, String>, StreamingCodec<FeedPage<T>> {
+
+    final static String ATOM_NS = "http://www.w3.org/2005/Atom";
+    final static String APP_NS = "http://www.w3.org/2007/app";
+
+    private final static String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+    private final static XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    private final static XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    static {
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private final XmlValueCodec<T> valueCodec;
+
+    /**
+     * Creates an instance that reads and writes entry values with {@link XmlValueCodec#forType(Class)}
+     *
+     * @param entryTypeMarker the entry type
+     */
+    public StaxCodec(Class<T> entryTypeMarker) {
+        this(XmlValueCodec.forType(entryTypeMarker));
+    }
+
+    public StaxCodec(XmlValueCodec<T> valueCodec) {
+        this.valueCodec = valueCodec;
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/xml";
+    }
+
+    @Override
+    public String encode(FeedPage<T> page) {
+        StringWriter writer = new StringWriter();
+        write(page, writer);
+        return writer.toString();
+    }
+
+    @Override
+    public FeedPage<T> decode(String encoded) {
+        try {
+            return read(inputFactory.createXMLStreamReader(new StringReader(encoded)));
+        } catch (XMLStreamException e) {
+            throw new AtomiumDecodeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void encode(FeedPage<T> page, OutputStream out) {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        write(page, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new AtomiumEncodeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public FeedPage<T> decode(InputStream in) {
+        // closing the reader does not close the stream
+        try {
+            return read(inputFactory.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new AtomiumDecodeException(e.getMessage(), e);
+        }
+    }
+
+    private void write(FeedPage<T> page, Writer out) {
+        try {
+            // written directly, since XMLStreamWriter can't write the standalone declaration
+            out.write(XML_DECLARATION);
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out);
+            try {
+                writeFeed(page, writer);
+                writer.flush();
+            } finally {
+                writer.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new AtomiumEncodeException(e.getMessage(), e);
+        }
+    }
+
+    private void writeFeed(FeedPage<T> page, XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement("ns2", "feed", ATOM_NS);
+        writer.writeNamespace("ns2", ATOM_NS);
+        writer.writeNamespace("app", APP_NS);
+        if (page.getBase() != null) {
+            writer.writeAttribute("xml", XMLConstants.XML_NS_URI, "base", page.getBase());
+        }
+        writeText(writer, "id", page.getId());
+        writeText(writer, "title", page.getTitle());
+        Generator generator = page.getGenerator();
+        if (generator != null) {
+            writer.writeStartElement("generator");
+            writeAttribute(writer, "uri", generator.getUri());
+            writeAttribute(writer, "version", generator.getVersion());
+            if (generator.getText() != null) {
+                writer.writeCharacters(generator.getText());
+            }
+            writer.writeEndElement();
+        }
+        writeTimestamp(writer, null, "updated", page.getUpdated());
+        writeLinks(writer, page.getLinks());
+        if (page.getEntries() != null) {
+            for (Entry<T> entry : page.getEntries()) {
+                writeEntry(writer, entry);
+            }
+        }
+        writer.writeEndElement();
+        writer.writeEndDocument();
+    }
+
+    private void writeEntry(XMLStreamWriter writer, Entry<T> entry) throws XMLStreamException {
+        writer.writeStartElement("entry");
+        writeText(writer, "id", entry.getId());
+        writeTimestamp(writer, null, "updated", entry.getUpdated());
+        Content<T> content = entry.getContent();
+        if (content != null) {
+            writer.writeStartElement("content");
+            writeAttribute(writer, "type", content.getType());
+            if (content.getValue() != null) {
+                valueCodec.write(content.getValue(), writer);
+            }
+            writer.writeEndElement();
+        }
+        writeLinks(writer, entry.getLinks());
+        if (entry instanceof AtomPubEntry) {
+            AtomPubEntry<T> pubEntry = (AtomPubEntry<T>) entry;
+            writeTimestamp(writer, APP_NS, "edited", pubEntry.getEdited());
+            Control control = pubEntry.getControl();
+            if (control != null) {
+                writer.writeStartElement("app", "control", APP_NS);
+                if (control.getDraft() != null) {
+                    writer.writeStartElement("app", "draft", APP_NS);
+                    writer.writeCharacters(control.getDraft().getValue());
+                    writer.writeEndElement();
+                }
+                writer.writeEndElement();
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeLinks(XMLStreamWriter writer, List<Link> links) throws XMLStreamException {
+        if (links == null) return;
+        for (Link link : links) {
+            writer.writeEmptyElement("link");
+            writeAttribute(writer, "rel", link.getRel());
+            writeAttribute(writer, "href", link.getHref());
+        }
+    }
+
+    private static void writeTimestamp(XMLStreamWriter writer, String namespace, String name, OffsetDateTime value)
+            throws XMLStreamException {
+        if (value == null) return;
+        if (namespace == null) {
+            writer.writeStartElement(name);
+        } else {
+            writer.writeStartElement("app", name, namespace);
+        }
+        writer.writeCharacters(TimestampFormat.format(value));
+        writer.writeEndElement();
+    }
+
+    private static void writeText(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        if (value == null) return;
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static void writeAttribute(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeAttribute(name, value);
+        }
+    }
+
+    private FeedPage<T> read(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"feed".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Expected a feed element", reader.getLocation());
+            }
+            FeedPage<T> page = new FeedPage<>();
+            page.setBase(reader.getAttributeValue(XMLConstants.XML_NS_URI, "base"));
+            List<Link> links = new ArrayList<>();
+            List<Entry<T>> entries = new ArrayList<>();
+            while (nextChild(reader)) {
+                switch (reader.getLocalName()) {
+                    case "id":
+                        page.setId(reader.getElementText());
+                        break;
+                    case "title":
+                        page.setTitle(reader.getElementText());
+                        break;
+                    case "generator":
+                        String uri = reader.getAttributeValue(null, "uri");
+                        String version = reader.getAttributeValue(null, "version");
+                        page.setGenerator(new Generator(reader.getElementText(), uri, version));
+                        break;
+                    case "updated":
+                        page.setUpdated(TimestampFormat.parse(reader.getElementText()));
+                        break;
+                    case "link":
+                        links.add(readLink(reader));
+                        break;
+                    case "entry":
+                        entries.add(readEntry(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                }
+            }
+            page.setLinks(links);
+            page.setEntries(entries);
+            return page;
+        } catch (RuntimeException e) {
+            throw new XMLStreamException(e.getMessage(), reader.getLocation(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Entry<T> readEntry(XMLStreamReader reader) throws XMLStreamException {
+        Adapters.AtomEntryAdapter.AdaptedEntry<T> entry = new Adapters.AtomEntryAdapter.AdaptedEntry<>();
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "id":
+                    entry.id = reader.getElementText();
+                    break;
+                case "updated":
+                    entry.updated = TimestampFormat.parse(reader.getElementText());
+                    break;
+                case "content":
+                    entry.content = readContent(reader);
+                    break;
+                case "link":
+                    entry.links.add(readLink(reader));
+                    break;
+                case "edited":
+                    entry.edited = TimestampFormat.parse(reader.getElementText());
+                    break;
+                case "control":
+                    entry.control = readControl(reader);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return Adapters.AtomEntryAdapter.toEntry(entry);
+    }
+
+    private Content<T> readContent(XMLStreamReader reader) throws XMLStreamException {
+        String type = reader.getAttributeValue(null, "type");
+        T value = null;
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("value".equals(reader.getLocalName())) {
+                    // the value codec leaves the reader on the event after the value element
+                    value = valueCodec.read(reader);
+                    event = reader.getEventType();
+                    continue;
+                }
+                skipElement(reader);
+            }
+            event = reader.next();
+        }
+        return new Content<>(value, type);
+    }
+
+    private static Control readControl(XMLStreamReader reader) throws XMLStreamException {
+        Control control = new Control();
+        while (nextChild(reader)) {
+            if ("draft".equals(reader.getLocalName())) {
+                control.setDraft(Draft.valueOf(reader.getElementText().trim().toUpperCase()));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return control;
+    }
+
+    private static Link readLink(XMLStreamReader reader) throws XMLStreamException {
+        Link link = new Link(reader.getAttributeValue(null, "rel"), reader.getAttributeValue(null, "href"));
+        skipElement(reader);
+        return link;
+    }
+
+    /**
+     * Advances to the start tag of the next child element, or to the end tag of the current element.
+     *
+     * @return true if positioned on the start tag of a child element
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+                default:
+                    // whitespace, comments and processing instructions
+            }
+        }
+    }
+
+    /**
+     * Skips the element on whose start tag the reader is positioned, leaving the reader on its end tag.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package be.wegenenverkeer.atomium.format;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Reads and writes the {@code value} element in the content of an Atom entry, for use by a {@link StaxCodec}.
+ * <p>
+ * The value element is written as {@code JaxbCodec} writes it: an unqualified {@code value} element with an
+ * {@code xsi:type} attribute that names the type of the value.
+ *
+ * @param <T> the value type
+ */
+public interface XmlValueCodec<T> {
+
+    /**
+     * Writes the value as a {@code value} element.
+     *
+     * @param value  the value to write, never null
+     * @param writer the writer, positioned within the {@code content} element
+     * @throws XMLStreamException when the value can't be written
+     */
+    void write(T value, XMLStreamWriter writer) throws XMLStreamException;
+
+    /**
+     * Reads a value.
+     * <p>
+     * On entry, the reader is positioned on the start tag of the {@code value} element. On return, it is positioned on
+     * the event that follows the matching end tag.
+     *
+     * @param reader the reader
+     * @return the value
+     * @throws XMLStreamException when the value can't be read
+     */
+    T read(XMLStreamReader reader) throws XMLStreamException;
+
+    /**
+     * Returns a codec for values of the given type: {@link #strings()} for {@code String}, {@link #jaxb(Class)}
+     * otherwise.
+     *
+     * @param type the value type
+     * @param <T>  the value type
+     * @return a codec for values of the given type
+     */
+    @SuppressWarnings("unchecked")
+    static <T> XmlValueCodec<T> forType(Class<T> type) {
+        return type == String.class ? (XmlValueCodec<T>) strings() : jaxb(type);
+    }
+
+    /**
+     * Returns a codec for {@code String} values that doesn't use JAXB.
+     *
+     * @return a codec for {@code String} values
+     */
+    static XmlValueCodec<String> strings() {
+        return new XmlValueCodec<String>() {
+            @Override
+            public void write(String value, XMLStreamWriter writer) throws XMLStreamException {
+                writer.writeStartElement("value");
+                writer.writeAttribute("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type", "xs:string");
+                writer.writeNamespace("xs", XMLConstants.W3C_XML_SCHEMA_NS_URI);
+                writer.writeNamespace("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+                writer.writeCharacters(value);
+                writer.writeEndElement();
+            }
+
+            @Override
+            public String read(XMLStreamReader reader) throws XMLStreamException {
+                String value = reader.getElementText();
+                reader.next();
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Returns a codec that binds the value with the JAXB context that {@code JaxbCodec} uses for the type.
+     * <p>
+     * Every value is marshalled or unmarshalled separately, with a pooled (un)marshaller, so each entry still bears the
+     * cost of a JAXB call. Implement an {@code XmlValueCodec} for the value type to read and write entries with StAX only.
+     *
+     * @param type the value type
+     * @param <T>  the value type
+     * @return a JAXB-based codec for values of the given type
+     */
+    static <T> XmlValueCodec<T> jaxb(Class<T> type) {
+        JaxbPool pool = JaxbPool.forEntryType(type);
+        QName name = new QName("value");
+        return new XmlValueCodec<T>() {
+            @Override
+            public void write(T value, XMLStreamWriter writer) throws XMLStreamException {
+                try {
+                    Marshaller marshaller = pool.borrowMarshaller();
+                    try {
+                        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+                        // declared as Object, as in Content, so that the xsi:type attribute is written
+                        marshaller.marshal(new JAXBElement<>(name, Object.class, value), writer);
+                    } finally {
+                        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+                        pool.release(marshaller);
+                    }
+                } catch (JAXBException e) {
+                    throw new XMLStreamException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public T read(XMLStreamReader reader) throws XMLStreamException {
+                try {
+                    Unmarshaller unmarshaller = pool.borrowUnmarshaller();
+                    try {
+                        return type.cast(unmarshaller.unmarshal(reader, Object.class).getValue());
+                    } finally {
+                        pool.release(unmarshaller);
+                    }
+                } catch (JAXBException e) {
+                    throw new XMLStreamException(e.getMessage(), e);
+                }
+            }
+        };
+    }
+}
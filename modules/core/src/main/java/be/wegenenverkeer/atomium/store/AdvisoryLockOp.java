@@ -0,0 +1,9 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Acquires or releases a session-level advisory lock.
+ * <p>
+ * The result of the operation is true iff the lock was acquired (resp. released).
+ */
+public interface AdvisoryLockOp extends JdbcOp<Boolean> {
+}
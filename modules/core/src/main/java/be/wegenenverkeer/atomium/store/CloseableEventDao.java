@@ -0,0 +1,19 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.EventDao;
+
+/**
+ * An {@code EventDao} that holds database resources, e.g. prepared statements, and must be closed after use.
+ *
+ * @param <T> entry value type
+ * @see JdbcEventDaoFactory#openDao(java.sql.Connection)
+ */
+public interface CloseableEventDao<T> extends EventDao<T>, AutoCloseable {
+
+    /**
+     * Releases the resources held by this DAO. This does not close the connection.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,16 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Event;
+
+import java.util.Iterator;
+
+/**
+ * Bulk-loads events into the event table.
+ * <p>
+ * The loaded events have no sequence number until they are indexed by an {@code Indexer}.
+ */
+public interface CopyEventsOp<T> extends JdbcOp<Long> {
+
+    void setEvents(Iterator<Event<T>> events);
+
+}
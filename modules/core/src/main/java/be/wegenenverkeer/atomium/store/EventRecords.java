@@ -0,0 +1,106 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * The binary record format for events in stores that keep serialized events outside the JVM heap, or on disk.
+ * <p>
+ * A record consists of an 8 byte header, holding the length of the payload and its CRC32 checksum, followed by the
+ * payload: the event id, the updated timestamp (epoch second, nanosecond and zone offset) and the encoded value. Strings
+ * are stored as UTF-8, prefixed by their length in bytes. The checksum allows detecting partially written records.
+ */
+final class EventRecords {
+
+    /**
+     * The size of the record header
+     */
+    final static int HEADER_SIZE = 8;
+
+    private EventRecords() {
+    }
+
+    /**
+     * Encodes the event as a record
+     *
+     * @param event the event
+     * @param codec the codec for the event value
+     * @param <T>   the event value type
+     * @return the record, including its header
+     */
+    static <T> byte[] encode(Event<T> event, Codec<T, String> codec) {
+        byte[] id = event.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] value = codec.encode(event.getValue()).getBytes(StandardCharsets.UTF_8);
+        OffsetDateTime updated = event.getUpdated();
+        int payloadSize = 4 + id.length + 8 + 4 + 4 + 4 + value.length;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+        buf.position(HEADER_SIZE);
+        buf.putInt(id.length).put(id);
+        buf.putLong(updated.toEpochSecond());
+        buf.putInt(updated.getNano());
+        buf.putInt(updated.getOffset().getTotalSeconds());
+        buf.putInt(value.length).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_SIZE, payloadSize);
+        buf.putInt(0, payloadSize);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.array();
+    }
+
+    /**
+     * Decodes the record at the position of the buffer, and advances the position to the next record.
+     *
+     * @param buf   the buffer
+     * @param codec the codec for the event value
+     * @param <T>   the event value type
+     * @return the event
+     */
+    static <T> Event<T> decode(ByteBuffer buf, Codec<T, String> codec) {
+        buf.position(buf.position() + HEADER_SIZE);
+        String id = readString(buf);
+        long epochSecond = buf.getLong();
+        int nano = buf.getInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(buf.getInt());
+        String value = readString(buf);
+        OffsetDateTime updated = OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+        return new Event<>(id, codec.decode(value), updated);
+    }
+
+    /**
+     * Checks whether a complete record, with a valid checksum, starts at the given position of the buffer.
+     *
+     * @param buf      the buffer
+     * @param position the position of the record
+     * @return the size of the record, including its header, or -1 if there is no valid record at the position
+     */
+    static int validRecordSize(ByteBuffer buf, int position) {
+        if (buf.limit() - position < HEADER_SIZE) return -1;
+        int payloadSize = buf.getInt(position);
+        if (payloadSize <= 0 || payloadSize > buf.limit() - position - HEADER_SIZE) return -1;
+        ByteBuffer payload = buf.duplicate();
+        payload.limit(position + HEADER_SIZE + payloadSize).position(position + HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buf.getInt(position + 4) ? HEADER_SIZE + payloadSize : -1;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (buf.hasArray()) {
+            String str = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+            buf.position(buf.position() + len);
+            return str;
+        }
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,444 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A durable event store that keeps its events in files, for deployments where a database is not available.
+ * <p>
+ * The events are appended to segment files in a directory. Each segment holds a fixed maximum number of events, and is
+ * named after the sequence number of its first event. Next to each segment log there is an offset index, a
+ * memory-mapped file holding the file position of every event in the segment. A range of events is read with a single
+ * positional read of the contiguous region between the positions of its first and last event, without scanning.
+ * <p>
+ * Writes are serialized. Depending on the {@link SyncPolicy}, the files are forced to the storage device after every
+ * batch, or periodically in the background. A segment is always forced when it is full and a new segment is started.
+ * <p>
+ * When the store is opened, the last segment is scanned and its index rebuilt. Every record carries a checksum, so
+ * a partially written tail, e.g. after a crash, is detected and truncated. Note that a batch of events is not atomic
+ * with respect to crashes: the events of a batch that were completely written before the crash are retained.
+ *
+ * @param <T> the event value type
+ */
+public class FileEventStore<T> implements EventDao<T>, AutoCloseable {
+
+    /**
+     * When the segment files are forced to the storage device
+     */
+    public enum SyncPolicy {
+        /**
+         * Before {@code push} returns
+         */
+        PER_BATCH,
+        /**
+         * Periodically, in a background thread. Events pushed since the last sync can be lost on a crash.
+         */
+        PERIODIC
+    }
+
+    public final static int DEFAULT_EVENTS_PER_SEGMENT = 100_000;
+
+    private final static Logger logger = LoggerFactory.getLogger(FileEventStore.class);
+
+    private final static String LOG_SUFFIX = ".log";
+    private final static String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+    private final Codec<T, String> codec;
+    private final int eventsPerSegment;
+    private final SyncPolicy syncPolicy;
+    private final ScheduledExecutorService syncExecutor;
+
+    private volatile Segment[] segments;
+
+    /**
+     * The number of events visible to readers
+     */
+    private volatile long size;
+    private boolean closed = false;
+
+    public FileEventStore(Path directory, Codec<T, String> codec) throws IOException {
+        this(directory, codec, DEFAULT_EVENTS_PER_SEGMENT, SyncPolicy.PER_BATCH, Duration.ZERO);
+    }
+
+    /**
+     * Opens the store, creating the directory if required, and recovers the last segment.
+     *
+     * @param directory        the directory holding the segment files
+     * @param codec            the codec for the event values
+     * @param eventsPerSegment the maximum number of events in a new segment
+     * @param syncPolicy       when the segment files are forced to the storage device
+     * @param syncInterval     the interval between syncs, for the {@code PERIODIC} policy
+     * @throws IOException when the store can't be opened, or a segment other than the last is corrupt
+     */
+    public FileEventStore(Path directory, Codec<T, String> codec, int eventsPerSegment, SyncPolicy syncPolicy,
+                          Duration syncInterval) throws IOException {
+        if (eventsPerSegment < 1) throw new IllegalArgumentException("Events per segment must be strictly positive");
+        if (syncPolicy == SyncPolicy.PERIODIC && (syncInterval.isNegative() || syncInterval.isZero())) {
+            throw new IllegalArgumentException("Periodic sync requires a strictly positive interval");
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.eventsPerSegment = eventsPerSegment;
+        this.syncPolicy = syncPolicy;
+        Files.createDirectories(directory);
+        this.segments = openSegments();
+        Segment last = segments[segments.length - 1];
+        this.size = last.base + last.count;
+        if (syncPolicy == SyncPolicy.PERIODIC) {
+            String threadName = "atomium-file-sync-" + directory.getFileName();
+            this.syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+            long millis = Math.max(1, syncInterval.toMillis());
+            this.syncExecutor.scheduleWithFixedDelay(this::periodicSync, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.syncExecutor = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean push(List<Event<T>> events) {
+        if (closed) throw new IllegalStateException("Store is closed");
+        if (events.isEmpty()) return true;
+        try {
+            int i = 0;
+            while (i < events.size()) {
+                Segment segment = writableSegment();
+                int n = Math.min(events.size() - i, segment.capacity - segment.count);
+                segment.append(events.subList(i, i + n), codec);
+                // the segments written so far stay in the log if a later one fails, so they are made visible now
+                size = segment.base + segment.count;
+                i += n;
+            }
+            if (syncPolicy == SyncPolicy.PER_BATCH) {
+                segments[segments.length - 1].sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean push(Event<T> event) {
+        return push(Collections.singletonList(event));
+    }
+
+    @Override
+    public List<Event<T>> getEvents(long startNum, long size) {
+        long start = Math.max(0, startNum);
+        long end = Math.min(this.size, startNum + size);
+        if (start >= end) return new ArrayList<>();
+        Segment[] segs = this.segments;
+        List<Event<T>> events = new ArrayList<>((int) (end - start));
+        int s = segmentIndex(segs, start);
+        long seq = start;
+        try {
+            while (seq < end) {
+                Segment segment = segs[s];
+                long segmentEnd = s + 1 < segs.length ? Math.min(end, segs[s + 1].base) : end;
+                segment.read((int) (seq - segment.base), (int) (segmentEnd - segment.base), codec, events);
+                seq = segmentEnd;
+                s++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return events;
+    }
+
+    @Override
+    public Long totalNumberOfEvents() {
+        return size;
+    }
+
+    /**
+     * Forces the events written so far to the storage device
+     */
+    public synchronized void sync() {
+        try {
+            segments[segments.length - 1].sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+        segments[segments.length - 1].sync();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private void periodicSync() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to sync event store in " + directory, e);
+        }
+    }
+
+    private Segment writableSegment() throws IOException {
+        Segment last = segments[segments.length - 1];
+        if (last.count < last.capacity) return last;
+        last.sync();
+        Segment next = Segment.create(directory, last.base + last.count, eventsPerSegment);
+        Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[grown.length - 1] = next;
+        segments = grown;
+        return next;
+    }
+
+    private Segment[] openSegments() throws IOException {
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(LOG_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (bases.isEmpty()) {
+            return new Segment[]{Segment.create(directory, 0, eventsPerSegment)};
+        }
+        Segment[] segs = new Segment[bases.size()];
+        for (int i = 0; i < segs.length; i++) {
+            boolean last = i == segs.length - 1;
+            Segment segment = Segment.open(directory, bases.get(i), eventsPerSegment);
+            if (last) {
+                segment.recover();
+            } else {
+                segment.verify(bases.get(i + 1) - bases.get(i));
+            }
+            segs[i] = segment;
+        }
+        return segs;
+    }
+
+    private static int segmentIndex(Segment[] segs, long seq) {
+        int lo = 0;
+        int hi = segs.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (segs[mid].base <= seq) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * A segment log file and its offset index.
+     * <p>
+     * Entry {@code i} of the index holds the file position of event {@code i} of the segment; the entry after the last
+     * event holds the end position of the log. The index is written before the events are made visible to readers.
+     */
+    private static final class Segment {
+
+        /**
+         * The minimum size of the windows in which the log is mapped when it is scanned
+         */
+        final static int SCAN_WINDOW_SIZE = 64 << 20;
+
+        final long base;
+        final int capacity;
+        final Path logPath;
+        final FileChannel log;
+        final FileChannel indexChannel;
+        final MappedByteBuffer index;
+
+        /**
+         * The number of events in the segment; only accessed by the writer
+         */
+        int count;
+
+        private Segment(long base, int capacity, Path logPath, FileChannel log, FileChannel indexChannel) throws IOException {
+            this.base = base;
+            this.capacity = capacity;
+            this.logPath = logPath;
+            this.log = log;
+            this.indexChannel = indexChannel;
+            this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (capacity + 1) * 8L);
+        }
+
+        static Segment create(Path directory, long base, int capacity) throws IOException {
+            Segment segment = open(directory, base, capacity);
+            segment.index.putLong(0, 0L);
+            return segment;
+        }
+
+        static Segment open(Path directory, long base, int defaultCapacity) throws IOException {
+            String name = String.format("%020d", base);
+            Path logPath = directory.resolve(name + LOG_SUFFIX);
+            Path indexPath = directory.resolve(name + INDEX_SUFFIX);
+            long indexSize = Files.exists(indexPath) ? Files.size(indexPath) : 0;
+            int capacity = indexSize >= 16 ? (int) (indexSize / 8 - 1) : defaultCapacity;
+            FileChannel log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(base, capacity, logPath, log, indexChannel);
+        }
+
+        long position(int i) {
+            return index.getLong(i * 8);
+        }
+
+        <T> void append(List<Event<T>> events, Codec<T, String> codec) throws IOException {
+            List<byte[]> records = new ArrayList<>(events.size());
+            int total = 0;
+            for (Event<T> event : events) {
+                byte[] record = EventRecords.encode(event, codec);
+                records.add(record);
+                total += record.length;
+            }
+            long start = position(count);
+            ByteBuffer buf = ByteBuffer.allocate(total);
+            long pos = start;
+            int i = count;
+            for (byte[] record : records) {
+                index.putLong(i++ * 8, pos);
+                buf.put(record);
+                pos += record.length;
+            }
+            buf.flip();
+            long writePos = start;
+            while (buf.hasRemaining()) {
+                writePos += log.write(buf, writePos);
+            }
+            index.putLong(i * 8, pos);
+            count = i;
+        }
+
+        <T> void read(int from, int to, Codec<T, String> codec, List<Event<T>> events) throws IOException {
+            long start = position(from);
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(position(to) - start));
+            while (buf.hasRemaining()) {
+                if (log.read(buf, start + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + logPath);
+                }
+            }
+            buf.flip();
+            for (int i = from; i < to; i++) {
+                events.add(EventRecords.decode(buf, codec));
+            }
+        }
+
+        /**
+         * Rebuilds the index from the log, and truncates the log after the last complete record.
+         */
+        void recover() throws IOException {
+            long logSize = log.size();
+            long end = rebuildIndex();
+            if (end < logSize) {
+                logger.warn("Truncating " + (logSize - end) + " bytes of incomplete events at the end of " + logPath);
+                log.truncate(end);
+            }
+            sync();
+        }
+
+        /**
+         * Checks that a full segment is consistent with its index, and rebuilds the index if it is not.
+         */
+        void verify(long expectedCount) throws IOException {
+            long logSize = log.size();
+            if (expectedCount <= capacity && position((int) expectedCount) == logSize) {
+                count = (int) expectedCount;
+                return;
+            }
+            if (rebuildIndex() != logSize || count != expectedCount) {
+                throw new IOException("Corrupt segment " + logPath);
+            }
+            sync();
+        }
+
+        /**
+         * Scans the log for complete records, and writes their positions to the index.
+         * <p>
+         * The log is mapped in windows of at least {@link #SCAN_WINDOW_SIZE} bytes, so that segments of any size can be
+         * scanned.
+         *
+         * @return the end position of the last complete record
+         */
+        private long rebuildIndex() throws IOException {
+            long logSize = log.size();
+            ByteBuffer window = null;
+            long windowStart = 0;
+            long pos = 0;
+            int n = 0;
+            while (n < capacity && pos < logSize) {
+                int recordSize = window == null ? -1 : EventRecords.validRecordSize(window, (int) (pos - windowStart));
+                if (recordSize < 0) {
+                    // a window that starts at the record holds all of it, so the record is incomplete or corrupt
+                    if (window != null && windowStart == pos) break;
+                    window = mapWindow(pos, logSize);
+                    windowStart = pos;
+                    continue;
+                }
+                index.putLong(n++ * 8, pos);
+                pos += recordSize;
+            }
+            index.putLong(n * 8, pos);
+            count = n;
+            return pos;
+        }
+
+        /**
+         * Maps a window of the log that starts at a record, and is large enough to hold that record
+         */
+        private ByteBuffer mapWindow(long pos, long logSize) throws IOException {
+            long size = logSize - pos;
+            if (size >= EventRecords.HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(EventRecords.HEADER_SIZE);
+                while (header.hasRemaining()) {
+                    if (log.read(header, pos + header.position()) < 0) break;
+                }
+                long recordSize = EventRecords.HEADER_SIZE + (long) Math.max(0, header.getInt(0));
+                size = Math.min(size, Math.max(SCAN_WINDOW_SIZE, recordSize));
+            }
+            return log.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size, Integer.MAX_VALUE));
+        }
+
+        void sync() throws IOException {
+            log.force(false);
+            index.force();
+        }
+
+        void close() throws IOException {
+            log.close();
+            indexChannel.close();
+        }
+    }
+
+}
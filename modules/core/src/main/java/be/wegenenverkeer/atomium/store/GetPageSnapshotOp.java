@@ -0,0 +1,12 @@
+package be.wegenenverkeer.atomium.store;
+
+import java.util.Optional;
+
+/**
+ * Reads the snapshot of a page in a mime type.
+ */
+public interface GetPageSnapshotOp extends JdbcOp<Optional<PageSnapshot>> {
+
+    void setPage(long pageNum, String mimeType);
+
+}
@@ -0,0 +1,15 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Notifies listeners that new events have been indexed.
+ */
+public interface HeadNotifyOp extends JdbcOp<Boolean> {
+
+    /**
+     * Sets the sequence number of the new head of the feed.
+     *
+     * @param headSequenceNo the highest assigned sequence number, or a negative number if it is not known
+     */
+    void setHeadSequenceNo(long headSequenceNo);
+
+}
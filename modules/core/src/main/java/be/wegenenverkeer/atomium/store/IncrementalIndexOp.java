@@ -0,0 +1,19 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Indexes a bounded number of not-yet-indexed events.
+ * <p>
+ * The result of the operation is the number of events that have been indexed.
+ */
+public interface IncrementalIndexOp extends JdbcOp<Integer> {
+
+    void setMaxRows(int maxRows);
+
+    /**
+     * Returns the highest sequence number after the operation has executed
+     *
+     * @return the highest assigned sequence number, or -1 if no event is indexed
+     */
+    long getHighestSequenceNo();
+
+}
@@ -4,4 +4,12 @@ package be.wegenenverkeer.atomium.store;
  * Created by Karel Maesen, Geovise BVBA on 14/12/16.
  */
 public interface IndexOp extends JdbcOp<Boolean> {
+
+    /**
+     * Returns the number of events that were indexed by the last execution
+     *
+     * @return the number of indexed events
+     */
+    int getUpdateCount();
+
 }
@@ -0,0 +1,187 @@
+package be.wegenenverkeer.atomium.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@code Indexer} of a {@code PostgresEventStore} in the background.
+ * <p>
+ * Every application node can run an {@code IndexScheduler}. Before indexing, a scheduler tries to take a session-level
+ * advisory lock on the event table (using {@code pg_try_advisory_lock}). Only the node that holds the lock indexes; the
+ * other nodes skip the run without blocking, and try again later.
+ * <p>
+ * The interval between runs adapts to the observed backlog: when events were indexed, the next run is scheduled after
+ * the minimum interval; when there was nothing to index, the interval is doubled, up to the maximum interval. A run can
+ * also be requested explicitly with {@link #trigger()}, e.g. after events have been written.
+ */
+public class IndexScheduler implements AutoCloseable {
+
+    /**
+     * The result of {@link #runOnce()} when another node holds the indexing lock
+     */
+    public static final int NOT_LEADER = -1;
+
+    private final static Logger logger = LoggerFactory.getLogger(IndexScheduler.class);
+
+    private final PostgresEventStore<?> store;
+    private final DataSource dataSource;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final int maxRowsPerPass;
+    private final long lockKey;
+    private final ScheduledExecutorService executor;
+
+    private volatile boolean triggered = false;
+    private volatile boolean closed = false;
+    private long intervalMillis;
+    private ScheduledFuture<?> next;
+
+    public IndexScheduler(PostgresEventStore<?> store, DataSource dataSource) {
+        this(store, dataSource, Duration.ofMillis(100), Duration.ofSeconds(5), Indexer.DEFAULT_MAX_ROWS_PER_PASS);
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param store          the store to index
+     * @param dataSource     the {@code DataSource} providing connections to the store's database
+     * @param minInterval    the interval between runs while there are events to index
+     * @param maxInterval    the interval between runs when idle, or when another node is indexing
+     * @param maxRowsPerPass the maximum number of events indexed in one transaction
+     */
+    public IndexScheduler(PostgresEventStore<?> store, DataSource dataSource, Duration minInterval, Duration maxInterval,
+                          int maxRowsPerPass) {
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("Minimum interval must not exceed the maximum interval");
+        }
+        this.store = store;
+        this.dataSource = dataSource;
+        this.minIntervalMillis = Math.max(1, minInterval.toMillis());
+        this.maxIntervalMillis = Math.max(this.minIntervalMillis, maxInterval.toMillis());
+        this.maxRowsPerPass = maxRowsPerPass;
+        this.lockKey = PostgresDialect.INSTANCE.indexLockKey(store.getJdbcEntryStoreMetadata());
+        this.intervalMillis = this.minIntervalMillis;
+        String threadName = "atomium-indexer-" + store.getJdbcEntryStoreMetadata().getTableName();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts scheduled indexing
+     */
+    public void start() {
+        schedule(0);
+    }
+
+    /**
+     * Requests an indexing run as soon as possible.
+     */
+    public void trigger() {
+        triggered = true;
+        schedule(0);
+    }
+
+    /**
+     * Returns the current interval between runs
+     *
+     * @return the current interval between runs
+     */
+    public synchronized Duration getCurrentInterval() {
+        return Duration.ofMillis(intervalMillis);
+    }
+
+    /**
+     * Indexes all pending events, if no other node is indexing.
+     *
+     * @return the number of indexed events, or {@link #NOT_LEADER} if another node holds the indexing lock
+     * @throws SQLException when indexing fails
+     */
+    public int runOnce() throws SQLException {
+        PostgresDialect dialect = PostgresDialect.INSTANCE;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(true);
+            try {
+                if (!dialect.mkTryAdvisoryLockOp(conn, lockKey).execute()) {
+                    return NOT_LEADER;
+                }
+                try {
+                    int total = 0;
+                    int indexed;
+                    do {
+                        indexed = store.indexIncrementally(conn, maxRowsPerPass);
+                        total += indexed;
+                    } while (indexed == maxRowsPerPass && !closed);
+                    return total;
+                } finally {
+                    dialect.mkAdvisoryUnlockOp(conn, lockKey).execute();
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void run() {
+        triggered = false;
+        long delay;
+        try {
+            int indexed = runOnce();
+            if (indexed == NOT_LEADER) {
+                delay = maxIntervalMillis;
+            } else if (indexed > 0) {
+                delay = minIntervalMillis;
+            } else {
+                delay = Math.min(maxIntervalMillis, currentIntervalMillis() * 2);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Index run on {}: {} events indexed", store.getJdbcEntryStoreMetadata().getTableName(), indexed);
+            }
+        } catch (Exception e) {
+            logger.error("Index run failed", e);
+            delay = maxIntervalMillis;
+        }
+        schedule(triggered ? 0 : delay);
+    }
+
+    private synchronized long currentIntervalMillis() {
+        return intervalMillis;
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (closed) return;
+        if (delayMillis > 0) {
+            intervalMillis = delayMillis;
+        }
+        if (next != null) {
+            next.cancel(false);
+        }
+        next = executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops scheduled indexing. A run in progress is allowed to complete its current pass.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+        executor.shutdown();
+    }
+}
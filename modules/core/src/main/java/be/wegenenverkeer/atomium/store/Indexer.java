@@ -15,6 +15,11 @@ import java.sql.SQLException;
  */
 public class Indexer {
 
+    /**
+     * The default maximum number of events that are indexed in one incremental indexing pass
+     */
+    public static final int DEFAULT_MAX_ROWS_PER_PASS = 10000;
+
     final private JdbcDialect dialect;
     final private JdbcEventStoreMetadata meta;
     Indexer(JdbcDialect dialect, JdbcEventStoreMetadata metadata){
@@ -24,7 +29,64 @@ public class Indexer {
 
     public boolean index(Connection conn) throws SQLException {
         try (IndexOp op = dialect.mkIndexOp(conn, this.meta)) {
-            return op.execute();
+            boolean result = op.execute();
+            // only notify when the head has moved, since every listener acts on a notification
+            if (op.getUpdateCount() > 0) {
+                notifyHead(conn, headSequenceNo(conn));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Indexes at most {@link #DEFAULT_MAX_ROWS_PER_PASS} events.
+     *
+     * @param conn the connection to use
+     * @return the number of events indexed
+     * @throws SQLException when indexing fails
+     * @see #indexIncrementally(Connection, int)
+     */
+    public int indexIncrementally(Connection conn) throws SQLException {
+        return indexIncrementally(conn, DEFAULT_MAX_ROWS_PER_PASS);
+    }
+
+    /**
+     * Indexes at most {@code maxRows} events, in order of registration.
+     * <p>
+     * In contrast to {@link #index(Connection)}, this bounds the number of rows that are locked and rewritten by a single
+     * pass. Callers that need to catch up with a large backlog should repeat this until it returns less than {@code maxRows}.
+     *
+     * @param conn    the connection to use
+     * @param maxRows the maximum number of events to index
+     * @return the number of events indexed
+     * @throws SQLException when indexing fails
+     */
+    public int indexIncrementally(Connection conn, int maxRows) throws SQLException {
+        try (IncrementalIndexOp op = dialect.mkIncrementalIndexOp(conn, this.meta)) {
+            op.setMaxRows(maxRows);
+            int indexed = op.execute();
+            if (indexed > 0) {
+                notifyHead(conn, op.getHighestSequenceNo());
+            }
+            return indexed;
+        }
+    }
+
+    private long headSequenceNo(Connection conn) throws SQLException {
+        try (TotalSizeOp op = dialect.mkTotalSizeOp(conn, this.meta)) {
+            return op.execute() - 1;
+        }
+    }
+
+    /**
+     * Notifies listeners that the head of the feed has changed.
+     * <p>
+     * The notification is delivered when the transaction of the connection commits.
+     */
+    private void notifyHead(Connection conn, long headSequenceNo) throws SQLException {
+        try (HeadNotifyOp op = dialect.mkHeadNotifyOp(conn, this.meta)) {
+            op.setHeadSequenceNo(headSequenceNo);
+            op.execute();
         }
     }
 }
@@ -0,0 +1,129 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.AsyncEventDao;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventDao;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * An {@code AsyncEventDao} that runs the JDBC operations on a dedicated executor.
+ * <p>
+ * Every operation takes a connection from the {@code DataSource}, and returns it when done (see
+ * {@link JdbcEventDaoFactory#createDao(DataSource)}). The executor should have
+ * no more threads than the connection pool has connections, so that the threads do not block waiting for a
+ * connection. The executor's queue should be bounded: when it is full, operations fail fast with a
+ * {@code RejectedExecutionException}, rather than building up an unbounded backlog.
+ * <p>
+ * The returned stages complete on a thread of the executor.
+ */
+public class JdbcAsyncEventDao<T> implements AsyncEventDao<T>, AutoCloseable {
+
+    private final EventDao<T> dao;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Creates an instance that runs on the given executor. The executor is not shut down when this instance is closed.
+     *
+     * @param factory    the factory for the synchronous DAOs
+     * @param dataSource the {@code DataSource} providing connections to the store's database
+     * @param executor   the executor for the JDBC operations
+     */
+    public JdbcAsyncEventDao(JdbcEventDaoFactory<T> factory, DataSource dataSource, ExecutorService executor) {
+        this(factory, dataSource, executor, false);
+    }
+
+    /**
+     * Creates an instance with its own executor
+     *
+     * @param factory       the factory for the synchronous DAOs
+     * @param dataSource    the {@code DataSource} providing connections to the store's database
+     * @param threads       the number of threads. This should not exceed the size of the connection pool
+     * @param queueCapacity the maximum number of operations waiting for a thread
+     * @see #newExecutor(String, int, int)
+     */
+    public JdbcAsyncEventDao(JdbcEventDaoFactory<T> factory, DataSource dataSource, int threads, int queueCapacity) {
+        this(factory, dataSource,
+                newExecutor("atomium-jdbc-" + factory.getJdbcEntryStoreMetadata().getTableName(), threads, queueCapacity),
+                true);
+    }
+
+    private JdbcAsyncEventDao(JdbcEventDaoFactory<T> factory, DataSource dataSource, ExecutorService executor, boolean ownsExecutor) {
+        this.dao = factory.createDao(dataSource);
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Creates a bounded executor for JDBC operations
+     *
+     * @param name          the prefix for the thread names
+     * @param threads       the number of threads. This should not exceed the size of the connection pool
+     * @param queueCapacity the maximum number of operations waiting for a thread
+     * @return an {@code ExecutorService} with daemon threads
+     */
+    public static ExecutorService newExecutor(String name, int threads, int queueCapacity) {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be strictly positive");
+        if (queueCapacity < 1) throw new IllegalArgumentException("Queue capacity must be strictly positive");
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @Override
+    public CompletionStage<Boolean> push(List<Event<T>> events) {
+        return submit(dao -> dao.push(events));
+    }
+
+    @Override
+    public CompletionStage<List<Event<T>>> getEvents(long startNum, long size) {
+        return submit(dao -> dao.getEvents(startNum, size));
+    }
+
+    @Override
+    public CompletionStage<Long> totalNumberOfEvents() {
+        return submit(EventDao::totalNumberOfEvents);
+    }
+
+    private <R> CompletionStage<R> submit(Function<EventDao<T>, R> operation) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(operation.apply(dao));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Shuts down the executor, if it was created by this instance
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
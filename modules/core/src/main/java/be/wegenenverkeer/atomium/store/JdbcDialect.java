@@ -13,12 +13,25 @@ public interface JdbcDialect {
 
     <T> GetEventsOp<T> mkGetEventsOp(Connection conn, Codec<T, String> codec, JdbcEventStoreMetadata meta);
 
+    <T> StreamEventsOp<T> mkStreamEventsOp(Connection conn, Codec<T, String> codec, JdbcEventStoreMetadata meta);
+
     CreateEventTableOp mkCreateEventTableOp(Connection conn, JdbcEventStoreMetadata meta);
 
+    CreateEventTableOp mkCreateEventTableOp(Connection conn, JdbcEventStoreMetadata meta, boolean withUpdatedIndex);
+
+    MigrateEventTableOp mkMigrateEventTableOp(Connection conn, JdbcEventStoreMetadata meta, boolean withUpdatedIndex);
+
     TotalSizeOp mkTotalSizeOp(Connection conn, JdbcEventStoreMetadata meta);
 
     <T> SaveEventOp<T> mkSaveEventOp(Connection conn, Codec<T, String> codec, JdbcEventStoreMetadata meta) throws
             SQLException;
 
+    <T> SaveEventOp<T> mkSaveEventOp(Connection conn, Codec<T, String> codec, JdbcEventStoreMetadata meta, int batchSize) throws
+            SQLException;
+
     IndexOp mkIndexOp(Connection conn, JdbcEventStoreMetadata meta);
+
+    IncrementalIndexOp mkIncrementalIndexOp(Connection conn, JdbcEventStoreMetadata meta);
+
+    HeadNotifyOp mkHeadNotifyOp(Connection conn, JdbcEventStoreMetadata meta);
 }
@@ -2,11 +2,15 @@ package be.wegenenverkeer.atomium.store;
 
 import be.wegenenverkeer.atomium.api.*;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A factory for {@code EntryDao}s
@@ -15,14 +19,84 @@ import java.util.concurrent.CompletableFuture;
  */
 public interface JdbcEventDaoFactory<T> {
 
+    /**
+     * The default number of events that are written to the database in one round-trip
+     */
+    int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * The default number of rows that are fetched from the database in one round-trip when streaming events
+     */
+    int DEFAULT_FETCH_SIZE = 1000;
+
     Codec<T, String> getEntryValueCodec();
 
     JdbcEventStoreMetadata getJdbcEntryStoreMetadata();
 
     JdbcDialect getDialect();
 
+    /**
+     * Returns the maximum number of events that are written to the database in one round-trip
+     *
+     * @return the batch size for writing events
+     */
+    default int getBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Returns the number of rows that are fetched from the database in one round-trip when streaming events
+     *
+     * @return the fetch size for streaming events
+     * @see EventReader#streamEvents(long, long)
+     */
+    default int getFetchSize() {
+        return DEFAULT_FETCH_SIZE;
+    }
+
+    /**
+     * Creates a DAO that uses the connection
+     * <p>
+     * The DAO prepares the statements for every call, and closes them when the call is done.
+     *
+     * @param conn the connection to use
+     * @return a DAO for the event table
+     */
     default EventDao<T> createDao(Connection conn) {
-        return new JdbcEventDao<>(conn, getEntryValueCodec(), getJdbcEntryStoreMetadata(), getDialect());
+        return new JdbcEventDao<>(conn, getEntryValueCodec(), getJdbcEntryStoreMetadata(), getDialect(), getBatchSize(),
+                getFetchSize(), false);
+    }
+
+    /**
+     * Creates a DAO that uses the connection, and reuses its prepared statements
+     * <p>
+     * The DAO prepares its statements on first use, and reuses them for subsequent calls, so that Postgres can use
+     * server-side prepared statements. Keep the DAO for as long as the connection is used, and close it when done:
+     * <pre>
+     *     try (CloseableEventDao&lt;T&gt; dao = store.openDao(conn)) {
+     *         ...
+     *     }
+     * </pre>
+     *
+     * @param conn the connection to use
+     * @return a DAO for the event table, that must be closed after use
+     */
+    default CloseableEventDao<T> openDao(Connection conn) {
+        return new JdbcEventDao<>(conn, getEntryValueCodec(), getJdbcEntryStoreMetadata(), getDialect(), getBatchSize(),
+                getFetchSize(), true);
+    }
+
+    /**
+     * Creates a DAO that borrows a connection from the {@code DataSource} for every operation
+     * <p>
+     * The DAO is thread-safe, and can be shared by all threads. Reads run on a read-only connection; every
+     * {@code push} runs in its own transaction.
+     *
+     * @param dataSource the {@code DataSource}, normally backed by a connection pool
+     * @return a DAO for the event table
+     */
+    default EventDao<T> createDao(DataSource dataSource) {
+        return new DataSourceEventDao<>(this, dataSource);
     }
 
     default EventReader<T> createReader(Connection conn) {
@@ -33,38 +107,73 @@ public interface JdbcEventDaoFactory<T> {
         return createDao(conn);
     }
 
+    /**
+     * Creates an asynchronous DAO that runs on the executor, using connections from the {@code DataSource}
+     *
+     * @param dataSource the {@code DataSource}
+     * @param executor   the executor for the JDBC operations. It should have no more threads than the connection pool
+     * @return an asynchronous DAO for the event table
+     * @see JdbcAsyncEventDao
+     */
+    default AsyncEventDao<T> createAsyncDao(DataSource dataSource, ExecutorService executor) {
+        return new JdbcAsyncEventDao<>(this, dataSource, executor);
+    }
+
 }
 
 /**
  * Because Jdbc is inherently synchronous, we invert the priority: async methods derive from sync methods
+ * <p>
+ * When statements are reused, the operations, and their prepared statements, are created on first use and kept for the
+ * lifetime of the DAO. They are released when the DAO or its connection is closed. Otherwise, every call creates its
+ * operation and closes it when done.
  *
  * @param <T>
  */
-class JdbcEventDao<T> implements EventDao<T> {
+class JdbcEventDao<T> implements CloseableEventDao<T> {
 
     final private Connection conn;
     final private Codec<T, String> codec;
     final private JdbcEventStoreMetadata metadata;
     final private JdbcDialect dialect;
+    final private int batchSize;
+    final private int fetchSize;
+    final private boolean reuseStatements;
+
+    private SaveEventOp<T> saveEventOp;
+    private GetEventsOp<T> getEventsOp;
+    private TotalSizeOp totalSizeOp;
 
-    JdbcEventDao(Connection c, Codec<T, String> codec, JdbcEventStoreMetadata metadata, JdbcDialect dialect) {
+    JdbcEventDao(Connection c, Codec<T, String> codec, JdbcEventStoreMetadata metadata, JdbcDialect dialect, int batchSize,
+                 int fetchSize, boolean reuseStatements) {
         this.conn = c;
         this.codec = codec;
         this.metadata = metadata;
         this.dialect = dialect;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.reuseStatements = reuseStatements;
     }
 
 
     @Override
     public boolean push(List<Event<T>> events) {
-        try (SaveEventOp<T> op = dialect.mkSaveEventOp(conn, codec, metadata) ){
+        SaveEventOp<T> op = null;
+        try {
+            op = saveEventOp != null ? saveEventOp : dialect.mkSaveEventOp(conn, codec, metadata, batchSize);
             for (Event<T> event : events) {
-                op.set(event);
-                op.execute();
+                op.addBatch(event);
             }
+            op.executeBatch();
             return true;
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (reuseStatements) {
+                saveEventOp = op;
+            } else if (op != null) {
+                op.close();
+            }
         }
     }
 
@@ -75,23 +184,164 @@ class JdbcEventDao<T> implements EventDao<T> {
 
     @Override
     public List<Event<T>> getEvents(long startNum, long size) {
-        GetEventsOp<T> getEventsOp = dialect.mkGetEventsOp(conn, codec, metadata);
-        getEventsOp.setRange(startNum, size);
-        return runOp(getEventsOp);
+        GetEventsOp<T> op = getEventsOp != null ? getEventsOp : dialect.mkGetEventsOp(conn, codec, metadata);
+        op.setRange(startNum, size);
+        if (!reuseStatements) {
+            return runOp(op);
+        }
+        getEventsOp = op;
+        return execute(op);
+    }
+
+    /**
+     * Streams the events using a database cursor. The stream uses the connection of this DAO until it is closed.
+     */
+    @Override
+    public Stream<Event<T>> streamEvents(long startNum, long size) {
+        StreamEventsOp<T> op = dialect.mkStreamEventsOp(conn, codec, metadata);
+        op.setRange(startNum, size);
+        op.setFetchSize(fetchSize);
+        return runOp(op);
     }
 
     @Override
     public Long totalNumberOfEvents() {
-        return runOp(dialect.mkTotalSizeOp(conn, metadata));
+        TotalSizeOp op = totalSizeOp != null ? totalSizeOp : dialect.mkTotalSizeOp(conn, metadata);
+        if (!reuseStatements) {
+            return runOp(op);
+        }
+        totalSizeOp = op;
+        return execute(op);
+    }
+
+    /**
+     * Releases the prepared statements of this DAO. This does not close the connection.
+     */
+    @Override
+    public void close() {
+        if (saveEventOp != null) saveEventOp.close();
+        if (getEventsOp != null) getEventsOp.close();
+        if (totalSizeOp != null) totalSizeOp.close();
+        saveEventOp = null;
+        getEventsOp = null;
+        totalSizeOp = null;
     }
 
     private <R> R runOp(JdbcOp<R> op) {
+        try {
+            return execute(op);
+        } finally {
+            if (op != null) op.close();
+        }
+    }
+
+    private <R> R execute(JdbcOp<R> op) {
         try {
             return op.execute();
         } catch (SQLException e) {
             throw new RuntimeException(e);
-        } finally {
-            if (op != null) op.close();
+        }
+    }
+}
+
+/**
+ * An {@code EventDao} that borrows a connection for every operation, and returns it when done.
+ * <p>
+ * Instances hold no connection state, and can be shared between threads.
+ *
+ * @param <T>
+ */
+class DataSourceEventDao<T> implements EventDao<T> {
+
+    final private JdbcEventDaoFactory<T> factory;
+    final private DataSource dataSource;
+
+    DataSourceEventDao(JdbcEventDaoFactory<T> factory, DataSource dataSource) {
+        this.factory = factory;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Writes the events in a single transaction
+     */
+    @Override
+    public boolean push(List<Event<T>> events) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                boolean result = factory.createDao(conn).push(events);
+                conn.commit();
+                return result;
+            } catch (Throwable t) {
+                // also on an Error, since restoring auto-commit would commit the partial batch
+                conn.rollback();
+                throw t;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean push(Event<T> event) {
+        return push(Collections.singletonList(event));
+    }
+
+    @Override
+    public List<Event<T>> getEvents(long startNum, long size) {
+        return read(dao -> dao.getEvents(startNum, size));
+    }
+
+    @Override
+    public Long totalNumberOfEvents() {
+        return read(EventDao::totalNumberOfEvents);
+    }
+
+    /**
+     * Streams the events using a database cursor. The connection is held until the stream is closed.
+     */
+    @Override
+    public Stream<Event<T>> streamEvents(long startNum, long size) {
+        Connection conn = null;
+        boolean readOnly = false;
+        try {
+            conn = dataSource.getConnection();
+            readOnly = conn.isReadOnly();
+            conn.setReadOnly(true);
+            final Connection streamConn = conn;
+            final boolean wasReadOnly = readOnly;
+            return factory.createDao(conn).streamEvents(startNum, size)
+                    .onClose(() -> release(streamConn, wasReadOnly));
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) release(conn, readOnly);
+            if (e instanceof RuntimeException) throw (RuntimeException) e;
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <R> R read(Function<EventDao<T>, R> operation) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean readOnly = conn.isReadOnly();
+            conn.setReadOnly(true);
+            try {
+                return operation.apply(factory.createDao(conn));
+            } finally {
+                conn.setReadOnly(readOnly);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void release(Connection conn, boolean readOnly) {
+        try {
+            conn.setReadOnly(readOnly);
+            conn.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
         }
     }
 }
@@ -1,5 +1,7 @@
 package be.wegenenverkeer.atomium.store;
 
+import java.util.Objects;
+
 /**
  * An JdbcFeedEntryStore
  * <p>
@@ -107,4 +109,43 @@ public class JdbcEventStoreMetadata {
     public String getEntryValColumnType() {
         return entryValColumnType;
     }
+
+    /**
+     * Returns the name of the channel on which changes to the head of the feed are notified
+     *
+     * @return the name of the notification channel
+     */
+    public String getNotificationChannel() {
+        return tableName + "_head";
+    }
+
+    /**
+     * Returns the name of the table holding the snapshots of completed pages
+     *
+     * @return the name of the page snapshot table
+     * @see PageSnapshotStore
+     */
+    public String getPageSnapshotTableName() {
+        return tableName + "_pages";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JdbcEventStoreMetadata that = (JdbcEventStoreMetadata) o;
+        return tableName.equals(that.tableName) &&
+                idColumnName.equals(that.idColumnName) &&
+                updatedColumnName.equals(that.updatedColumnName) &&
+                primaryKeyColumnName.equals(that.primaryKeyColumnName) &&
+                sequenceNoColumnName.equals(that.sequenceNoColumnName) &&
+                entryValColumnName.equals(that.entryValColumnName) &&
+                entryValColumnType.equals(that.entryValColumnType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tableName, idColumnName, updatedColumnName, primaryKeyColumnName, sequenceNoColumnName,
+                entryValColumnName, entryValColumnType);
+    }
 }
@@ -0,0 +1,10 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Returns the highest page number that has a snapshot in a mime type, or -1 if there is none.
+ */
+public interface LastPageSnapshotOp extends JdbcOp<Long> {
+
+    void setMimeType(String mimeType);
+
+}
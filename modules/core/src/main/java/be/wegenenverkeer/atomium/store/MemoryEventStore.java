@@ -4,27 +4,71 @@ import be.wegenenverkeer.atomium.api.Event;
 import be.wegenenverkeer.atomium.api.EventDao;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * An in-memory store for entries, meant as implementation example, and
  * for use in tests
  * <p>
+ * The events are kept in an append-only log of fixed-size array chunks. Every pushed batch reserves a contiguous range
+ * of sequence numbers with a single compare-and-set, so the events of concurrent batches never interleave. A batch becomes
+ * visible to readers once it, and all batches before it, have been written. Reads locate events by index arithmetic.
+ * A lock is only taken when a new chunk must be allocated.
+ * <p>
+ * A batch is copied and checked for {@code null} events, and its chunks are allocated, before its sequence numbers are
+ * reserved, so that a reserved range is always written and published without gaps.
+ * <p>
  * Created by Karel Maesen, Geovise BVBA on 05/12/16.
  */
 public class MemoryEventStore<T> implements EventDao<T> {
 
-    final private ConcurrentSkipListMap<Long, Event<T>> store = new ConcurrentSkipListMap<>();
-    final private AtomicLong counter = new AtomicLong(0);
+    final private static int CHUNK_BITS = 12;
+    final private static int CHUNK_SIZE = 1 << CHUNK_BITS;
+    final private static int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * The next sequence number to reserve
+     */
+    final private AtomicLong reserved = new AtomicLong(0);
+
+    /**
+     * The number of events visible to readers. All events below this sequence number have been written
+     */
+    final private AtomicLong published = new AtomicLong(0);
+
+    private volatile Object[][] chunks = new Object[16][];
 
 
     @Override
     public boolean push(List<Event<T>> entries) {
-        entries.forEach(e -> store.put(counter.getAndIncrement(), e));
+        Object[] batch = entries.toArray();
+        for (Object event : batch) {
+            Objects.requireNonNull(event, "Event must not be null");
+        }
+        int n = batch.length;
+        if (n == 0) return true;
+        long start;
+        do {
+            start = reserved.get();
+            ensureCapacity(start + n);
+        } while (!reserved.compareAndSet(start, start + n));
+        long end = start + n;
+        Object[][] dir = chunks;
+        for (int i = 0; i < n; i++) {
+            long seq = start + i;
+            dir[chunkIndex(seq)][offset(seq)] = batch[i];
+        }
+        // publish in reservation order
+        while (published.get() != start) {
+            Thread.onSpinWait();
+        }
+        published.set(end);
         return true;
     }
 
@@ -35,16 +79,72 @@ public class MemoryEventStore<T> implements EventDao<T> {
 
     @Override
     public List<Event<T>> getEvents(long startNum, long size) {
-        Collection<Event<T>> coll = store.subMap(startNum, startNum + size).values();
-        List<Event<T>> entries = new ArrayList<>(coll.size());
-        entries.addAll(coll);
+        long start = Math.max(0, startNum);
+        long end = Math.min(published.get(), startNum + size);
+        if (start >= end) return new ArrayList<>();
+        List<Event<T>> entries = new ArrayList<>((int) (end - start));
+        Object[][] dir = chunks;
+        long seq = start;
+        while (seq < end) {
+            Object[] chunk = dir[chunkIndex(seq)];
+            int from = offset(seq);
+            int to = (int) Math.min(CHUNK_SIZE, from + (end - seq));
+            for (int i = from; i < to; i++) {
+                entries.add(eventIn(chunk, i));
+            }
+            seq += to - from;
+        }
         return entries;
     }
 
+    /**
+     * Streams the events in the range directly from the log, without copying them.
+     */
+    @Override
+    public Stream<Event<T>> streamEvents(long startNum, long size) {
+        long start = Math.max(0, startNum);
+        long end = Math.min(published.get(), startNum + size);
+        Object[][] dir = chunks;
+        return LongStream.range(start, Math.max(start, end))
+                .mapToObj(seq -> eventIn(dir[chunkIndex(seq)], offset(seq)));
+    }
+
     @Override
     public Long totalNumberOfEvents() {
-        return counter.get();
+        return published.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Event<T> eventIn(Object[] chunk, int offset) {
+        return (Event<T>) chunk[offset];
+    }
+
+    /**
+     * Allocates the chunks for all sequence numbers below {@code end}
+     * <p>
+     * Readers use the chunk directory without locking, so a published directory is never modified: a copy with the new
+     * chunks replaces it.
+     */
+    private void ensureCapacity(long end) {
+        int last = chunkIndex(end - 1);
+        Object[][] dir = chunks;
+        if (last < dir.length && dir[last] != null) return;
+        synchronized (this) {
+            dir = chunks;
+            if (last < dir.length && dir[last] != null) return;
+            Object[][] copy = Arrays.copyOf(dir, last < dir.length ? dir.length : Math.max(dir.length * 2, last + 1));
+            for (int i = 0; i <= last; i++) {
+                if (copy[i] == null) copy[i] = new Object[CHUNK_SIZE];
+            }
+            chunks = copy;
+        }
     }
-}
 
+    private static int chunkIndex(long seq) {
+        return (int) (seq >>> CHUNK_BITS);
+    }
 
+    private static int offset(long seq) {
+        return (int) (seq & CHUNK_MASK);
+    }
+}
@@ -0,0 +1,9 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Adds the indexes that are missing on an existing event table.
+ * <p>
+ * The operation returns the number of indexes that were created.
+ */
+public interface MigrateEventTableOp extends JdbcOp<Integer> {
+}
@@ -0,0 +1,18 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Thrown when pushing events to an {@link OffHeapEventStore} would exceed its off-heap memory budget.
+ * <p>
+ * The events of the rejected batch are not stored.
+ */
+public class OffHeapCapacityExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public OffHeapCapacityExceededException(String message) {
+        super(message);
+    }
+
+    public OffHeapCapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
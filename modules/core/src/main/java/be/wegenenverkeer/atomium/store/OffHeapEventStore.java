@@ -0,0 +1,213 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventDao;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An in-memory store that keeps its events outside the Java heap.
+ * <p>
+ * This is intended for feeds with very many small events, where an object graph per event on the heap would dominate
+ * memory use and GC pause times. The events are serialized (see {@code EventRecords}) into direct {@code ByteBuffer}
+ * slabs, and are only decoded into {@code Event}s when they are read. On the heap, the store only holds the slabs and a
+ * chunked array with the slab and offset of each event, i.e. 8 bytes per event.
+ * <p>
+ * The total size of the slabs is limited by a budget. A push that does not fit in the remaining budget fails with an
+ * {@link OffHeapCapacityExceededException}, without storing any of its events. Writes are serialized; reads do not
+ * take locks.
+ *
+ * @param <T> the event value type
+ */
+public class OffHeapEventStore<T> implements EventDao<T> {
+
+    public final static int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    final private static int CHUNK_BITS = 12;
+    final private static int CHUNK_SIZE = 1 << CHUNK_BITS;
+    final private static int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Codec<T, String> codec;
+    private final long maxBytes;
+    private final int slabSize;
+
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    /**
+     * The location of each event: the slab index in the high, and the offset in the low 32 bits
+     */
+    private volatile long[][] locations = new long[16][];
+
+    /**
+     * The number of events visible to readers
+     */
+    private volatile long size = 0;
+
+    /**
+     * The index of the slab being written to, or -1 before the first write
+     */
+    private int writeSlab = -1;
+    private long allocatedBytes = 0;
+    private long usedBytes = 0;
+
+    /**
+     * Creates an instance
+     *
+     * @param codec    the codec for the event values
+     * @param maxBytes the maximum number of bytes to allocate off-heap
+     */
+    public OffHeapEventStore(Codec<T, String> codec, long maxBytes) {
+        this(codec, maxBytes, (int) Math.min(DEFAULT_SLAB_SIZE, maxBytes));
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param codec    the codec for the event values
+     * @param maxBytes the maximum number of bytes to allocate off-heap
+     * @param slabSize the size of the off-heap buffers to allocate
+     */
+    public OffHeapEventStore(Codec<T, String> codec, long maxBytes, int slabSize) {
+        if (slabSize < 1) throw new IllegalArgumentException("Slab size must be strictly positive");
+        if (maxBytes < slabSize) throw new IllegalArgumentException("Budget must be at least one slab");
+        this.codec = codec;
+        this.maxBytes = maxBytes;
+        this.slabSize = slabSize;
+    }
+
+    @Override
+    public synchronized boolean push(List<Event<T>> events) {
+        if (events.isEmpty()) return true;
+        List<byte[]> records = new ArrayList<>(events.size());
+        for (Event<T> event : events) {
+            byte[] record = EventRecords.encode(event, codec);
+            if (record.length > slabSize) {
+                throw new OffHeapCapacityExceededException("Event " + event.getId() + " of " + record.length
+                        + " bytes exceeds the slab size of " + slabSize + " bytes");
+            }
+            records.add(record);
+        }
+        reserve(records);
+
+        long seq = size;
+        for (byte[] record : records) {
+            if (writeSlab < 0 || slabs[writeSlab].remaining() < record.length) {
+                writeSlab++;
+            }
+            ByteBuffer slab = slabs[writeSlab];
+            long location = ((long) writeSlab << 32) | slab.position();
+            slab.put(record);
+            ensureCapacity(seq + 1);
+            locations[chunkIndex(seq)][offset(seq)] = location;
+            seq++;
+        }
+        size = seq;
+        return true;
+    }
+
+    @Override
+    public boolean push(Event<T> event) {
+        return push(Collections.singletonList(event));
+    }
+
+    @Override
+    public List<Event<T>> getEvents(long startNum, long size) {
+        long end = Math.min(this.size, startNum + size);
+        long start = Math.max(0, startNum);
+        if (start >= end) return new ArrayList<>();
+        long[][] locs = locations;
+        ByteBuffer[] slabs = this.slabs;
+        List<Event<T>> events = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            long location = locs[chunkIndex(seq)][offset(seq)];
+            ByteBuffer buf = slabs[(int) (location >>> 32)].duplicate();
+            buf.position((int) location);
+            events.add(EventRecords.decode(buf, codec));
+        }
+        return events;
+    }
+
+    @Override
+    public Long totalNumberOfEvents() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes allocated off-heap
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the number of allocated off-heap bytes holding events
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Allocates the slabs required to store the records, if that is possible within the budget.
+     */
+    private void reserve(List<byte[]> records) {
+        int remaining = writeSlab < 0 ? 0 : slabs[writeSlab].remaining();
+        long newSlabs = 0;
+        long needed = 0;
+        for (byte[] record : records) {
+            if (remaining < record.length) {
+                newSlabs++;
+                remaining = slabSize;
+            }
+            remaining -= record.length;
+            needed += record.length;
+        }
+        long toAllocate = Math.max(0, newSlabs - (slabs.length - 1 - writeSlab));
+        long required = allocatedBytes + toAllocate * slabSize;
+        if (required > maxBytes) {
+            throw new OffHeapCapacityExceededException("Storing " + records.size() + " events (" + needed
+                    + " bytes) requires " + required + " bytes off-heap, which exceeds the budget of " + maxBytes + " bytes");
+        }
+        for (long i = 0; i < toAllocate; i++) {
+            addSlab();
+        }
+        usedBytes += needed;
+    }
+
+    private void addSlab() {
+        ByteBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            throw new OffHeapCapacityExceededException("Failed to allocate " + slabSize + " bytes of direct memory", e);
+        }
+        ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+        grown[grown.length - 1] = slab;
+        slabs = grown;
+        allocatedBytes += slabSize;
+    }
+
+    private void ensureCapacity(long end) {
+        int last = chunkIndex(end - 1);
+        long[][] locs = locations;
+        if (last < locs.length && locs[last] != null) return;
+        if (last >= locs.length) {
+            locs = Arrays.copyOf(locs, Math.max(locs.length * 2, last + 1));
+        }
+        locs[last] = new long[CHUNK_SIZE];
+        locations = locs;
+    }
+
+    private static int chunkIndex(long seq) {
+        return (int) (seq >>> CHUNK_BITS);
+    }
+
+    private static int offset(long seq) {
+        return (int) (seq & CHUNK_MASK);
+    }
+
+}
@@ -0,0 +1,57 @@
+package be.wegenenverkeer.atomium.store;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The encoded body of a completed feed page, as stored by a {@code PageSnapshotStore}.
+ */
+public final class PageSnapshot {
+
+    final private long pageNum;
+    final private String mimeType;
+    final private byte[] body;
+    final private String etag;
+    final private OffsetDateTime updated;
+
+    /**
+     * Creates an instance
+     *
+     * @param pageNum  the page number
+     * @param mimeType the mime type of the body
+     * @param body     the encoded page. The array is not copied, and must not be modified afterwards
+     * @param etag     the ETag of the page
+     * @param updated  the updated timestamp of the page
+     */
+    public PageSnapshot(long pageNum, String mimeType, byte[] body, String etag, OffsetDateTime updated) {
+        this.pageNum = pageNum;
+        this.mimeType = mimeType;
+        this.body = body;
+        this.etag = etag;
+        this.updated = updated;
+    }
+
+    public long getPageNum() {
+        return pageNum;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Returns the encoded page. The array must not be modified.
+     *
+     * @return the encoded page
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public OffsetDateTime getUpdated() {
+        return updated;
+    }
+}
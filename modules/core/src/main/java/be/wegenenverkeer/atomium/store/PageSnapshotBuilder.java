@@ -0,0 +1,205 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.ETagStrategy;
+import be.wegenenverkeer.atomium.api.FeedMetadata;
+import be.wegenenverkeer.atomium.api.FeedPage;
+import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.FeedPageProvider;
+import be.wegenenverkeer.atomium.api.FeedPageProviderAdapters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+
+/**
+ * Writes snapshots of completed pages to a {@code PageSnapshotStore} in the background.
+ * <p>
+ * The builder follows the indexer: on every run, it writes a snapshot for every completed page that has none yet, in
+ * each of the configured mime types. Runs are scheduled at a fixed interval, and can be requested explicitly with
+ * {@link #trigger()}, e.g. from a head-of-feed notification:
+ * <pre>
+ *     listener.subscribe(head -&gt; builder.trigger());
+ * </pre>
+ * Several nodes can run a builder for the same feed: snapshots are written once, and a snapshot that another node
+ * already wrote is skipped.
+ */
+public class PageSnapshotBuilder<T> implements AutoCloseable {
+
+    private final static Logger logger = LoggerFactory.getLogger(PageSnapshotBuilder.class);
+
+    private final PostgresEventStore<T> store;
+    private final FeedMetadata feedMetadata;
+    private final PageSnapshotStore snapshots;
+    private final DataSource dataSource;
+    private final Map<String, Function<FeedPage<T>, byte[]>> encoders;
+    private final long intervalMillis;
+    private final int maxPagesPerRun;
+    private final ETagStrategy etagStrategy;
+    private final ScheduledExecutorService executor;
+
+    private volatile boolean triggered = false;
+    private volatile boolean closed = false;
+    private ScheduledFuture<?> next;
+
+    /**
+     * Creates an instance that computes the ETags of the snapshots with {@link ETagStrategy#MD5}
+     *
+     * @param store          the event store
+     * @param feedMetadata   the metadata of the feed
+     * @param snapshots      the store for the snapshots
+     * @param dataSource     the {@code DataSource} providing connections to the store's database
+     * @param encoders       the page encoders, by mime type
+     * @param interval       the interval between runs
+     * @param maxPagesPerRun the maximum number of pages to snapshot in one run
+     */
+    public PageSnapshotBuilder(PostgresEventStore<T> store, FeedMetadata feedMetadata, PageSnapshotStore snapshots,
+                               DataSource dataSource, Map<String, Function<FeedPage<T>, byte[]>> encoders,
+                               Duration interval, int maxPagesPerRun) {
+        this(store, feedMetadata, snapshots, dataSource, encoders, interval, maxPagesPerRun, ETagStrategy.MD5);
+    }
+
+    /**
+     * Creates an instance
+     * <p>
+     * The ETag strategy should be the one the server uses for pages that have no snapshot, so that a page has the same
+     * ETag whether or not it is served from a snapshot.
+     *
+     * @param store          the event store
+     * @param feedMetadata   the metadata of the feed
+     * @param snapshots      the store for the snapshots
+     * @param dataSource     the {@code DataSource} providing connections to the store's database
+     * @param encoders       the page encoders, by mime type
+     * @param interval       the interval between runs
+     * @param maxPagesPerRun the maximum number of pages to snapshot in one run
+     * @param etagStrategy   the strategy that computes the ETags of the snapshots
+     */
+    public PageSnapshotBuilder(PostgresEventStore<T> store, FeedMetadata feedMetadata, PageSnapshotStore snapshots,
+                               DataSource dataSource, Map<String, Function<FeedPage<T>, byte[]>> encoders,
+                               Duration interval, int maxPagesPerRun, ETagStrategy etagStrategy) {
+        if (encoders.isEmpty()) throw new IllegalArgumentException("At least one encoder is required");
+        if (maxPagesPerRun < 1) throw new IllegalArgumentException("Max. pages per run must be strictly positive");
+        this.store = store;
+        this.feedMetadata = feedMetadata;
+        this.snapshots = snapshots;
+        this.dataSource = dataSource;
+        this.encoders = new LinkedHashMap<>(encoders);
+        this.intervalMillis = Math.max(1, interval.toMillis());
+        this.maxPagesPerRun = maxPagesPerRun;
+        this.etagStrategy = etagStrategy;
+        String threadName = "atomium-snapshots-" + store.getJdbcEntryStoreMetadata().getTableName();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns an encoder for a codec that encodes pages as String
+     *
+     * @param codec the codec
+     * @param <T>   the type of the entry values
+     * @return a function that encodes a page to UTF-8 bytes
+     */
+    public static <T> Function<FeedPage<T>, byte[]> utf8(FeedPageCodec<T, String> codec) {
+        return page -> codec.encode(page).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts building snapshots in the background
+     */
+    public void start() {
+        schedule(0);
+    }
+
+    /**
+     * Requests a run as soon as possible.
+     */
+    public void trigger() {
+        triggered = true;
+        schedule(0);
+    }
+
+    /**
+     * Writes the missing snapshots of completed pages, up to the maximum number of pages per run.
+     *
+     * @return the number of pages for which snapshots were written
+     * @throws SQLException when reading pages or writing snapshots fails
+     */
+    public int runOnce() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); CloseableEventDao<T> dao = store.openDao(conn)) {
+            FeedPageProvider<T> provider = FeedPageProviderAdapters.adapt(dao, feedMetadata);
+            // all pages before the head of the feed are complete
+            long headPageNum = provider.getHeadOfFeedRef().getPageNum();
+            long from = headPageNum;
+            for (String mimeType : encoders.keySet()) {
+                from = Math.min(from, snapshots.getLastPageNum(conn, mimeType) + 1);
+            }
+            int written = 0;
+            for (long pageNum = from; pageNum < headPageNum && written < maxPagesPerRun && !closed; pageNum++) {
+                FeedPage<T> page = provider.getFeedPage(page(pageNum));
+                if (!page.complete()) break;
+                String etag = page.getETag(etagStrategy);
+                for (Map.Entry<String, Function<FeedPage<T>, byte[]>> encoder : encoders.entrySet()) {
+                    byte[] body = encoder.getValue().apply(page);
+                    snapshots.save(conn, new PageSnapshot(pageNum, encoder.getKey(), body, etag, page.getUpdated()));
+                }
+                written++;
+            }
+            return written;
+        }
+    }
+
+    private void run() {
+        triggered = false;
+        long delay = intervalMillis;
+        try {
+            int written = runOnce();
+            if (written == maxPagesPerRun) {
+                // there may be more pages to snapshot
+                delay = 0;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Snapshot run on {}: {} pages written", store.getJdbcEntryStoreMetadata().getTableName(), written);
+            }
+        } catch (Exception e) {
+            logger.error("Snapshot run failed", e);
+        }
+        schedule(triggered ? 0 : delay);
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (closed) return;
+        if (next != null) {
+            next.cancel(false);
+        }
+        next = executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops building snapshots. A run in progress stops after its current page.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package be.wegenenverkeer.atomium.store;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Stores the encoded bodies of completed feed pages in a side table of the event table.
+ * <p>
+ * Completed pages never change, so their encoded body, ETag and updated timestamp can be written once, and then served
+ * with a single primary-key lookup instead of a range query on the event table and an encoding of the entries.
+ * Snapshots are normally written by a {@link PageSnapshotBuilder}.
+ */
+public class PageSnapshotStore {
+
+    private final JdbcEventStoreMetadata meta;
+    private final PostgresDialect dialect = PostgresDialect.INSTANCE;
+
+    /**
+     * Creates an instance
+     *
+     * @param meta the metadata of the event table
+     * @see JdbcEventStoreMetadata#getPageSnapshotTableName()
+     */
+    public PageSnapshotStore(JdbcEventStoreMetadata meta) {
+        this.meta = meta;
+    }
+
+    public JdbcEventStoreMetadata getJdbcEntryStoreMetadata() {
+        return meta;
+    }
+
+    public void createTable(Connection conn) throws SQLException {
+        try (JdbcOp<Boolean> op = dialect.mkCreatePageSnapshotTableOp(conn, meta)) {
+            op.execute();
+        }
+    }
+
+    /**
+     * Writes a snapshot, unless a snapshot for the same page and mime type already exists
+     *
+     * @param conn     the connection to use
+     * @param snapshot the snapshot
+     * @return true if the snapshot was written
+     * @throws SQLException when the snapshot could not be written
+     */
+    public boolean save(Connection conn, PageSnapshot snapshot) throws SQLException {
+        try (SavePageSnapshotOp op = dialect.mkSavePageSnapshotOp(conn, meta)) {
+            op.setSnapshot(snapshot);
+            return op.execute();
+        }
+    }
+
+    /**
+     * Returns the snapshot of a page
+     *
+     * @param conn     the connection to use
+     * @param pageNum  the page number
+     * @param mimeType the mime type of the page
+     * @return the snapshot, or empty if the page has no snapshot in the mime type
+     * @throws SQLException when the snapshot could not be read
+     */
+    public Optional<PageSnapshot> get(Connection conn, long pageNum, String mimeType) throws SQLException {
+        try (GetPageSnapshotOp op = dialect.mkGetPageSnapshotOp(conn, meta)) {
+            op.setPage(pageNum, mimeType);
+            return op.execute();
+        }
+    }
+
+    /**
+     * Returns the snapshot of a page, using a connection from the {@code DataSource}
+     *
+     * @param dataSource the {@code DataSource}
+     * @param pageNum    the page number
+     * @param mimeType   the mime type of the page
+     * @return the snapshot, or empty if the page has no snapshot in the mime type
+     */
+    public Optional<PageSnapshot> get(DataSource dataSource, long pageNum, String mimeType) {
+        try (Connection conn = dataSource.getConnection()) {
+            return get(conn, pageNum, mimeType);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the highest page number with a snapshot in the mime type
+     *
+     * @param conn     the connection to use
+     * @param mimeType the mime type
+     * @return the highest page number with a snapshot, or -1 if there is none
+     * @throws SQLException when the snapshots could not be read
+     */
+    public long getLastPageNum(Connection conn, String mimeType) throws SQLException {
+        try (LastPageSnapshotOp op = dialect.mkLastPageSnapshotOp(conn, meta)) {
+            op.setMimeType(mimeType);
+            return op.execute();
+        }
+    }
+}
@@ -2,12 +2,32 @@ package be.wegenenverkeer.atomium.store;
 
 import be.wegenenverkeer.atomium.api.Codec;
 import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.RawJson;
+import be.wegenenverkeer.atomium.format.RawJsonCodec;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * a <code>JdbcDialect</code> implementation for Postgresql
@@ -19,6 +39,11 @@ public class PostgresDialect implements JdbcDialect {
 
     public static final PostgresDialect INSTANCE = new PostgresDialect();
 
+    /**
+     * The SQL statements rendered for each event table
+     */
+    final private ConcurrentMap<JdbcEventStoreMetadata, Statements> statements = new ConcurrentHashMap<>();
+
     final private static String CREATE_TABLE_SQL = "CREATE TABLE %s ( "
             + " %s SERIAL primary key, "
             + " %s INT, "
@@ -26,7 +51,70 @@ public class PostgresDialect implements JdbcDialect {
             + " %s TIMESTAMP, "
             + " %s %s )";
 
-    final private static String INSERT_STATEMENT = "INSERT INTO %s ( %s, %s, %s) VALUES (?, ?, CAST(? AS %s))";
+    /**
+     * A unique index on the sequence number, used for reading pages and determining the head of the feed
+     */
+    final private static String CREATE_SEQNO_INDEX_SQL = "CREATE UNIQUE INDEX %s%s ON %s ( %s )";
+
+    /**
+     * A partial index on the events that are not yet indexed, in the order in which they are indexed
+     */
+    final private static String CREATE_UNINDEXED_INDEX_SQL = "CREATE INDEX %s%s ON %s ( %s ) WHERE %s IS NULL";
+
+    /**
+     * A BRIN index on the updated timestamp. This is small, and effective because the timestamp correlates with
+     * the insertion order
+     */
+    final private static String CREATE_UPDATED_INDEX_SQL = "CREATE INDEX %s%s ON %s USING BRIN ( %s )";
+
+    /**
+     * Builds an index without blocking writes, and skips it if it already exists
+     */
+    final private static String ONLINE_INDEX_OPTIONS = "CONCURRENTLY IF NOT EXISTS ";
+
+    final private static String INDEX_VALID_STATEMENT = "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)";
+
+    final private static String DROP_INDEX_STATEMENT = "DROP INDEX CONCURRENTLY IF EXISTS %s";
+
+    final private static String CREATE_PAGE_SNAPSHOT_TABLE_SQL = "CREATE TABLE %s ( "
+            + " page BIGINT NOT NULL, "
+            + " mime_type VARCHAR(100) NOT NULL, "
+            + " etag VARCHAR(100) NOT NULL, "
+            + " updated TIMESTAMP WITH TIME ZONE NOT NULL, "
+            + " body BYTEA NOT NULL, "
+            + " PRIMARY KEY ( page, mime_type ) )";
+
+    final private static String SAVE_PAGE_SNAPSHOT_STATEMENT = "INSERT INTO %s ( page, mime_type, etag, updated, body ) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    final private static String GET_PAGE_SNAPSHOT_STATEMENT = "SELECT etag, updated, body FROM %s WHERE page = ? AND mime_type = ?";
+
+    final private static String LAST_PAGE_SNAPSHOT_STATEMENT = "SELECT coalesce(max(page), -1) FROM %s WHERE mime_type = ?";
+
+    final private static String INSERT_INTO = "INSERT INTO %s ( %s, %s, %s) VALUES ";
+
+    final private static String INSERT_VALUES = "(?, ?, CAST(? AS %s))";
+
+    final private static int INSERT_PARAMS_PER_ROW = 3;
+
+    /**
+     * The maximum number of rows in a multi-row INSERT statement.
+     * <p>
+     * Postgres limits the number of bind parameters in a statement to 32767.
+     */
+    final private static int MAX_ROWS_PER_INSERT = 32767 / INSERT_PARAMS_PER_ROW;
+
+    final private static String COPY_STATEMENT = "COPY %s ( %s, %s, %s ) FROM STDIN";
+
+    final private static int COPY_BUFFER_SIZE = 64 * 1024;
+
+    final private static String TRY_ADVISORY_LOCK_STATEMENT = "SELECT pg_try_advisory_lock(?)";
+
+    final private static String ADVISORY_UNLOCK_STATEMENT = "SELECT pg_advisory_unlock(?)";
+
+    final private static String NOTIFY_STATEMENT = "SELECT pg_notify(?, ?)";
+
+    final private static String LISTEN_STATEMENT = "LISTEN \"%s\"";
 
     final private static String MAX_SEQNO_STATEMENT = "SELECT MAX( %s ) FROM %s";
 
@@ -81,18 +169,56 @@ public class PostgresDialect implements JdbcDialect {
                     + "WHERE ${table}.${idField} = to_update.${idField};";
 
 
+    /**
+     * Indexes at most a given number of events per execution.
+     * <p>
+     * In contrast to INDEX_STATEMENT, the current high-water mark is determined by reading the last entry of an index
+     * on the sequence number column, rather than by an aggregate over the whole table. The statement returns the
+     * number of indexed events, and the highest sequence number after indexing.
+     */
+    final private static String INCREMENTAL_INDEX_STATEMENT =
+            "WITH\n"
+                    + "    high_water_mark\n"
+                    + "  AS ( SELECT coalesce((SELECT ${sequence-field}\n"
+                    + "                        FROM ${table}\n"
+                    + "                        WHERE ${sequence-field} IS NOT NULL\n"
+                    + "                        ORDER BY ${sequence-field} DESC\n"
+                    + "                        LIMIT 1), -1) max_atom_entry),\n"
+                    + "    to_number\n"
+                    + "  AS (\n"
+                    + "      SELECT ${idField}\n"
+                    + "      FROM ${table}\n"
+                    + "      WHERE ${sequence-field} IS NULL\n"
+                    + "      ORDER BY ${idField} ASC\n"
+                    + "      LIMIT ?\n"
+                    + "  ),\n"
+                    + "    to_update\n"
+                    + "  AS (\n"
+                    + "      SELECT\n"
+                    + "        to_number.${idField},\n"
+                    + "        (row_number()\n"
+                    + "        OVER (ORDER BY to_number.${idField} ASC)) + hwm.max_atom_entry new_value\n"
+                    + "      FROM to_number CROSS JOIN high_water_mark hwm\n"
+                    + "  ),\n"
+                    + "    updated\n"
+                    + "  AS (\n"
+                    + "      UPDATE ${table}\n"
+                    + "      SET ${sequence-field} = to_update.new_value\n"
+                    + "      FROM to_update\n"
+                    + "      WHERE ${table}.${idField} = to_update.${idField}\n"
+                    + "      RETURNING ${table}.${sequence-field}\n"
+                    + "  )\n"
+                    + "SELECT count(*), coalesce(max(${sequence-field}), (SELECT max_atom_entry FROM high_water_mark))\n"
+                    + "FROM updated";
+
+
     @Override
     public <T> GetEventsOp<T> mkGetEventsOp(final Connection conn, final Codec<T, String> codec, final JdbcEventStoreMetadata meta) {
 
-        final String sql = String.format(SELECT_STATEMENT,
-                meta.getIdColumnName(),
-                meta.getEntryValueColumnName(),
-                meta.getUpdatedColumnName(),
-                meta.getTableName(),
-                meta.getSequenceNoColumnName(),
-                meta.getSequenceNoColumnName());
+        final String sql = statementsFor(meta).select;
 
         return new GetEventsOp<T>() {
+            private PreparedStatement stmt;
             private long startNum;
             private long size;
 
@@ -104,80 +230,281 @@ public class PostgresDialect implements JdbcDialect {
 
             @Override
             public List<Event<T>> execute() throws SQLException {
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (stmt == null) {
+                    stmt = conn.prepareStatement(sql);
+                }
+                stmt.setLong(1, startNum);
+                stmt.setLong(2, size);
+                try (ResultSet res = stmt.executeQuery()) {
+                    List<Event<T>> entries = new ArrayList<>();
+                    while (res.next()) {
+                        entries.add(readEvent(res, codec));
+                    }
+                    return entries;
+                }
+            }
+
+            @Override
+            public void close() {
+                close(stmt);
+                stmt = null;
+            }
+        };
+
+    }
+
+    /**
+     * Creates a {@code StreamEventsOp} that reads the events using a server-side cursor.
+     * <p>
+     * The Postgres driver only uses a cursor when auto-commit is off. If the connection is in auto-commit mode, it is
+     * switched off for the lifetime of the stream. Closing the stream then commits the (read-only) transaction and
+     * restores auto-commit mode.
+     *
+     * @param conn  the connection to use
+     * @param codec the codec for the event values
+     * @param meta  the metadata of the event table
+     * @param <T>   the type of the event values
+     * @return a {@code StreamEventsOp}
+     */
+    @Override
+    public <T> StreamEventsOp<T> mkStreamEventsOp(final Connection conn, final Codec<T, String> codec, final JdbcEventStoreMetadata meta) {
+
+        final String sql = statementsFor(meta).select;
+
+        return new StreamEventsOp<T>() {
+            private long startNum;
+            private long size;
+            private int fetchSize = JdbcEventDaoFactory.DEFAULT_FETCH_SIZE;
+
+            @Override
+            public void setRange(long startNum, long size) {
+                this.startNum = startNum;
+                this.size = size;
+            }
+
+            @Override
+            public void setFetchSize(int fetchSize) {
+                this.fetchSize = fetchSize;
+            }
+
+            @Override
+            public Stream<Event<T>> execute() throws SQLException {
+                final boolean autoCommit = conn.getAutoCommit();
+                PreparedStatement stmt = null;
+                ResultSet res = null;
+                try {
+                    if (autoCommit) conn.setAutoCommit(false);
+                    stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    stmt.setFetchSize(fetchSize);
                     stmt.setLong(1, startNum);
                     stmt.setLong(2, size);
-                    try (ResultSet res = stmt.executeQuery()) {
-                        List<Event<T>> entries = new ArrayList<>();
-                        while (res.next()) {
-                            String id = res.getString(1);
-                            String jsonEntityVal = res.getString(2);
-                            OffsetDateTime updated = (res.getTimestamp(3).toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime());
-                            T val = codec.decode(jsonEntityVal);
-                            entries.add(Event.make(id, val, updated));
+                    res = stmt.executeQuery();
+                } catch (SQLException | RuntimeException e) {
+                    release(res, stmt, autoCommit);
+                    throw e;
+                }
+                final PreparedStatement openStmt = stmt;
+                final ResultSet openRes = res;
+                Spliterator<Event<T>> spliterator = new Spliterators.AbstractSpliterator<Event<T>>(size,
+                        Spliterator.ORDERED | Spliterator.NONNULL) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super Event<T>> action) {
+                        try {
+                            if (!openRes.next()) return false;
+                            action.accept(readEvent(openRes, codec));
+                            return true;
+                        } catch (SQLException e) {
+                            throw new RuntimeException(e);
                         }
-                        return entries;
+                    }
+                };
+                return StreamSupport.stream(spliterator, false)
+                        .onClose(() -> {
+                            try {
+                                release(openRes, openStmt, autoCommit);
+                            } catch (SQLException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+            }
+
+            private void release(ResultSet res, Statement stmt, boolean autoCommit) throws SQLException {
+                close(res);
+                close(stmt);
+                if (autoCommit) {
+                    try {
+                        conn.commit();
+                    } finally {
+                        conn.setAutoCommit(true);
                     }
                 }
             }
         };
+    }
+
+    private static <T> Event<T> readEvent(ResultSet res, Codec<T, String> codec) throws SQLException {
+        String id = res.getString(1);
+        T val = readValue(res, codec);
+        OffsetDateTime updated = (res.getTimestamp(3).toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        return Event.make(id, val, updated);
+    }
 
+    /**
+     * Reads the event value. With a {@code RawJsonCodec}, the stored payload is passed through as raw bytes, without
+     * decoding it to a String first.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T readValue(ResultSet res, Codec<T, String> codec) throws SQLException {
+        if (codec instanceof RawJsonCodec) {
+            return (T) RawJson.of(res.getBytes(2));
+        }
+        return codec.decode(res.getString(2));
     }
 
     @Override
     public CreateEventTableOp mkCreateEventTableOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        return mkCreateEventTableOp(conn, meta, false);
+    }
+
+    /**
+     * Creates a {@code CreateEventTableOp} that creates the event table and its indexes.
+     * <p>
+     * The table gets a unique index on the sequence number column, and a partial index on the primary key of the rows
+     * that have no sequence number yet.
+     *
+     * @param conn             the connection to use
+     * @param meta             the metadata of the event table
+     * @param withUpdatedIndex whether to also create a BRIN index on the updated column
+     * @return a {@code CreateEventTableOp}
+     */
+    @Override
+    public CreateEventTableOp mkCreateEventTableOp(final Connection conn, final JdbcEventStoreMetadata meta,
+                                                   final boolean withUpdatedIndex) {
 
-        final String sql = String.format(CREATE_TABLE_SQL,
-                meta.getTableName(),
-                meta.getPrimaryKeyColumnName(),
-                meta.getSequenceNoColumnName(),
-                meta.getIdColumnName(),
-                meta.getUpdatedColumnName(),
-                meta.getEntryValueColumnName(),
-                meta.getEntryValColumnType());
+        final Statements sql = statementsFor(meta);
 
         return () -> {
             try (Statement stmt = conn.createStatement()) {
-                return stmt.execute(sql);
+                boolean result = stmt.execute(sql.createTable);
+                for (TableIndex index : sql.indexes(withUpdatedIndex)) {
+                    stmt.execute(index.create);
+                }
+                return result;
             }
         };
     }
 
+    /**
+     * Creates a {@code MigrateEventTableOp} that adds the indexes of {@link #mkCreateEventTableOp(Connection,
+     * JdbcEventStoreMetadata, boolean)} to an existing event table.
+     * <p>
+     * The indexes are built with CREATE INDEX CONCURRENTLY, so the table remains available for reads and writes. As
+     * concurrent index builds can not run inside a transaction, the connection must be in auto-commit mode. Indexes
+     * that are left invalid by an earlier, failed build are dropped and rebuilt.
+     *
+     * @param conn             the connection to use
+     * @param meta             the metadata of the event table
+     * @param withUpdatedIndex whether to also create a BRIN index on the updated column
+     * @return a {@code MigrateEventTableOp}
+     */
+    @Override
+    public MigrateEventTableOp mkMigrateEventTableOp(final Connection conn, final JdbcEventStoreMetadata meta,
+                                                     final boolean withUpdatedIndex) {
+
+        final Statements sql = statementsFor(meta);
+
+        return () -> {
+            if (!conn.getAutoCommit()) throw new IllegalArgumentException("This operation requires auto-commit mode on the connection");
+            int created = 0;
+            try (PreparedStatement validity = conn.prepareStatement(INDEX_VALID_STATEMENT);
+                 Statement stmt = conn.createStatement()) {
+                for (TableIndex index : sql.indexes(withUpdatedIndex)) {
+                    validity.setString(1, index.qualifiedName);
+                    Boolean valid = null;
+                    try (ResultSet res = validity.executeQuery()) {
+                        if (res.next()) valid = res.getBoolean(1);
+                    }
+                    if (Boolean.TRUE.equals(valid)) continue;
+                    if (valid != null) {
+                        stmt.execute(String.format(DROP_INDEX_STATEMENT, index.qualifiedName));
+                    }
+                    stmt.execute(index.migrate);
+                    created++;
+                }
+            }
+            return created;
+        };
+    }
+
 
     @Override
     public TotalSizeOp mkTotalSizeOp(final Connection conn, final JdbcEventStoreMetadata meta) {
-        final String sql = String.format(MAX_SEQNO_STATEMENT, meta.getSequenceNoColumnName(), meta.getTableName());
-        return () -> {
-            try (Statement stmt = conn.createStatement();
-                 ResultSet resultSet = stmt.executeQuery(sql)) {
-                if (resultSet.next()) {
-                    return resultSet.getLong(1) + 1;
+        final String sql = statementsFor(meta).maxSeqNo;
+        return new TotalSizeOp() {
+            private PreparedStatement stmt;
+
+            @Override
+            public Long execute() throws SQLException {
+                if (stmt == null) {
+                    stmt = conn.prepareStatement(sql);
                 }
+                try (ResultSet resultSet = stmt.executeQuery()) {
+                    if (resultSet.next()) {
+                        return resultSet.getLong(1) + 1;
+                    }
+                }
+                return 0L;
+            }
+
+            @Override
+            public void close() {
+                close(stmt);
+                stmt = null;
             }
-            return 0L;
         };
     }
 
     @Override
     public <T> SaveEventOp<T> mkSaveEventOp(final Connection conn, final Codec<T, String> codec, final JdbcEventStoreMetadata meta) throws
             SQLException {
+        return mkSaveEventOp(conn, codec, meta, JdbcEventDaoFactory.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a {@code SaveEventOp} that writes batched events in as few round-trips as possible.
+     * <p>
+     * Every full batch is written using a single multi-row INSERT statement. A remaining partial batch is written using
+     * JDBC statement batching.
+     *
+     * @param conn      the connection to use
+     * @param codec     the codec for the event values
+     * @param meta      the metadata of the event table
+     * @param batchSize the maximum number of events pending before the batch is written
+     * @param <T>       the type of the event values
+     * @return a {@code SaveEventOp}
+     * @throws SQLException when the statement can not be prepared
+     */
+    @Override
+    public <T> SaveEventOp<T> mkSaveEventOp(final Connection conn, final Codec<T, String> codec, final JdbcEventStoreMetadata meta,
+                                            final int batchSize) throws
+            SQLException {
+
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be strictly positive");
 
-        final String sql = String.format(INSERT_STATEMENT,
-                meta.getTableName(),
-                meta.getIdColumnName(),
-                meta.getUpdatedColumnName(),
-                meta.getEntryValueColumnName(),
-                meta.getEntryValColumnType());
+        final Statements sql = statementsFor(meta);
+        final int rowsPerInsert = Math.min(batchSize, MAX_ROWS_PER_INSERT);
 
-        final PreparedStatement stmt = conn.prepareStatement(sql);
+        final PreparedStatement stmt = conn.prepareStatement(sql.insert(1));
 
         return new SaveEventOp<T>() {
 
+            private final List<Event<T>> pending = new ArrayList<>(batchSize);
+            private PreparedStatement multiRowStmt;
+            private int written = 0;
+
             @Override
             public void set(Event<T> ev) throws SQLException {
-                stmt.setString(1, ev.getId());
-                stmt.setTimestamp(2, new Timestamp(ev.getUpdated().toInstant().toEpochMilli()));
-                stmt.setString(3, codec.encode(ev.getValue()));
+                bind(stmt, 0, ev);
             }
 
             @Override
@@ -185,21 +512,253 @@ public class PostgresDialect implements JdbcDialect {
                 return stmt.execute();
             }
 
+            @Override
+            public void addBatch(Event<T> event) throws SQLException {
+                pending.add(event);
+                if (pending.size() >= batchSize) {
+                    flush();
+                }
+            }
+
+            @Override
+            public int executeBatch() throws SQLException {
+                flush();
+                int result = written;
+                written = 0;
+                return result;
+            }
+
+            private void flush() throws SQLException {
+                int idx = 0;
+                try {
+                    if (rowsPerInsert > 1) {
+                        while (pending.size() - idx >= rowsPerInsert) {
+                            PreparedStatement multi = getMultiRowStmt();
+                            for (int row = 0; row < rowsPerInsert; row++) {
+                                bind(multi, row * INSERT_PARAMS_PER_ROW, pending.get(idx++));
+                            }
+                            multi.executeUpdate();
+                        }
+                    }
+                    if (idx < pending.size()) {
+                        for (; idx < pending.size(); idx++) {
+                            bind(stmt, 0, pending.get(idx));
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                    written += pending.size();
+                } catch (SQLException | RuntimeException e) {
+                    // leave the operation in a clean state, so that it can be reused
+                    try {
+                        stmt.clearBatch();
+                    } catch (SQLException ce) {
+                        e.addSuppressed(ce);
+                    }
+                    written = 0;
+                    throw e;
+                } finally {
+                    pending.clear();
+                }
+            }
+
+            private PreparedStatement getMultiRowStmt() throws SQLException {
+                if (multiRowStmt == null) {
+                    multiRowStmt = conn.prepareStatement(sql.insert(rowsPerInsert));
+                }
+                return multiRowStmt;
+            }
+
+            private void bind(PreparedStatement ps, int offset, Event<T> ev) throws SQLException {
+                ps.setString(offset + 1, ev.getId());
+                ps.setTimestamp(offset + 2, new Timestamp(ev.getUpdated().toInstant().toEpochMilli()));
+                ps.setString(offset + 3, codec.encode(ev.getValue()));
+            }
+
             @Override
             public void close() {
+                close(multiRowStmt);
                 close(stmt);
             }
         };
     }
 
+    /**
+     * Creates a {@code CopyEventsOp} that streams events into the event table using the Postgres COPY protocol.
+     * <p>
+     * The event values are encoded one at a time and written directly into the copy stream.
+     *
+     * @param conn  the connection to use. This must be a connection of the Postgres JDBC driver
+     * @param codec the codec for the event values
+     * @param meta  the metadata of the event table
+     * @param <T>   the type of the event values
+     * @return a {@code CopyEventsOp}
+     */
+    public <T> CopyEventsOp<T> mkCopyEventsOp(final Connection conn, final Codec<T, String> codec, final JdbcEventStoreMetadata meta) {
+
+        final String sql = statementsFor(meta).copy;
+
+        return new CopyEventsOp<T>() {
+
+            private Iterator<Event<T>> events = Collections.emptyIterator();
+
+            @Override
+            public void setEvents(Iterator<Event<T>> events) {
+                this.events = events;
+            }
+
+            @Override
+            public Long execute() throws SQLException {
+                PGCopyOutputStream out = new PGCopyOutputStream(conn.unwrap(PGConnection.class), sql, COPY_BUFFER_SIZE);
+                try {
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    while (events.hasNext()) {
+                        Event<T> ev = events.next();
+                        if (ev.getId() == null) {
+                            throw new SQLException("Event id must not be null");
+                        }
+                        writeEscaped(writer, ev.getId());
+                        writer.write('\t');
+                        // truncated to milliseconds, as when the event is inserted
+                        writer.write(LocalDateTime.ofInstant(ev.getUpdated().toInstant(), ZoneId.systemDefault())
+                                .truncatedTo(ChronoUnit.MILLIS).toString());
+                        writer.write('\t');
+                        writeEscaped(writer, codec.encode(ev.getValue()));
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                    return out.endCopy();
+                } catch (IOException e) {
+                    throw new SQLException("Failure to write events to copy stream", e);
+                } finally {
+                    if (out.isActive()) {
+                        out.cancelCopy();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes a value in the Postgres COPY text format
+     */
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char escaped;
+            switch (value.charAt(i)) {
+                case '\\':
+                    escaped = '\\';
+                    break;
+                case '\t':
+                    escaped = 't';
+                    break;
+                case '\n':
+                    escaped = 'n';
+                    break;
+                case '\r':
+                    escaped = 'r';
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write('\\');
+            writer.write(escaped);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+    }
+
     @Override
     public IndexOp mkIndexOp(final Connection conn, final JdbcEventStoreMetadata meta) {
-        final String sql = INDEX_STATEMENT
-                .replace("${table}", meta.getTableName())
-                .replace("${sequence-field}", meta.getSequenceNoColumnName())
-                .replace("${idField}", meta.getPrimaryKeyColumnName())
-                .replace("${order-by}", meta.getPrimaryKeyColumnName());
+        final String sql = statementsFor(meta).index;
+
+        return new IndexOp() {
+
+            private int updateCount = 0;
+
+            @Override
+            public int getUpdateCount() {
+                return updateCount;
+            }
+
+            @Override
+            public Boolean execute() throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    boolean result = stmt.execute(sql);
+                    updateCount = Math.max(0, stmt.getUpdateCount());
+                    return result;
+                }
+            }
+        };
+    }
+
+    @Override
+    public IncrementalIndexOp mkIncrementalIndexOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).incrementalIndex;
+
+        return new IncrementalIndexOp() {
+
+            private int maxRows = Indexer.DEFAULT_MAX_ROWS_PER_PASS;
+            private long highestSequenceNo = -1;
+
+            @Override
+            public void setMaxRows(int maxRows) {
+                if (maxRows < 1) throw new IllegalArgumentException("Max. rows must be strictly positive");
+                this.maxRows = maxRows;
+            }
+
+            @Override
+            public long getHighestSequenceNo() {
+                return highestSequenceNo;
+            }
 
+            @Override
+            public Integer execute() throws SQLException {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, maxRows);
+                    try (ResultSet res = stmt.executeQuery()) {
+                        res.next();
+                        highestSequenceNo = res.getLong(2);
+                        return res.getInt(1);
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public HeadNotifyOp mkHeadNotifyOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        return new HeadNotifyOp() {
+
+            private long headSequenceNo = -1;
+
+            @Override
+            public void setHeadSequenceNo(long headSequenceNo) {
+                this.headSequenceNo = headSequenceNo;
+            }
+
+            @Override
+            public Boolean execute() throws SQLException {
+                try (PreparedStatement stmt = conn.prepareStatement(NOTIFY_STATEMENT)) {
+                    stmt.setString(1, meta.getNotificationChannel());
+                    stmt.setString(2, headSequenceNo < 0 ? "" : Long.toString(headSequenceNo));
+                    return stmt.execute();
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates an operation that subscribes the session of the connection to the notification channel of the event table
+     *
+     * @param conn the connection to use
+     * @param meta the metadata of the event table
+     * @return a {@code JdbcOp}
+     */
+    public JdbcOp<Boolean> mkListenOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).listen;
         return () -> {
             try (Statement stmt = conn.createStatement()) {
                 return stmt.execute(sql);
@@ -207,6 +766,300 @@ public class PostgresDialect implements JdbcDialect {
         };
     }
 
+    /**
+     * Creates an operation that creates the page snapshot table of the event table
+     *
+     * @param conn the connection to use
+     * @param meta the metadata of the event table
+     * @return a {@code JdbcOp}
+     * @see JdbcEventStoreMetadata#getPageSnapshotTableName()
+     */
+    public JdbcOp<Boolean> mkCreatePageSnapshotTableOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).createPageSnapshotTable;
+        return () -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.execute(sql);
+            }
+        };
+    }
 
-}
+    /**
+     * Creates a {@code SavePageSnapshotOp}. Snapshots are written once: an existing snapshot is never replaced.
+     *
+     * @param conn the connection to use
+     * @param meta the metadata of the event table
+     * @return a {@code SavePageSnapshotOp}
+     */
+    public SavePageSnapshotOp mkSavePageSnapshotOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).savePageSnapshot;
+        return new SavePageSnapshotOp() {
+            private PreparedStatement stmt;
+            private PageSnapshot snapshot;
+
+            @Override
+            public void setSnapshot(PageSnapshot snapshot) {
+                this.snapshot = snapshot;
+            }
+
+            @Override
+            public Boolean execute() throws SQLException {
+                if (stmt == null) {
+                    stmt = conn.prepareStatement(sql);
+                }
+                stmt.setLong(1, snapshot.getPageNum());
+                stmt.setString(2, snapshot.getMimeType());
+                stmt.setString(3, snapshot.getEtag());
+                stmt.setObject(4, snapshot.getUpdated());
+                stmt.setBytes(5, snapshot.getBody());
+                return stmt.executeUpdate() > 0;
+            }
+
+            @Override
+            public void close() {
+                close(stmt);
+                stmt = null;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@code GetPageSnapshotOp}, which reads a snapshot with a single primary-key lookup
+     *
+     * @param conn the connection to use
+     * @param meta the metadata of the event table
+     * @return a {@code GetPageSnapshotOp}
+     */
+    public GetPageSnapshotOp mkGetPageSnapshotOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).getPageSnapshot;
+        return new GetPageSnapshotOp() {
+            private PreparedStatement stmt;
+            private long pageNum;
+            private String mimeType;
+
+            @Override
+            public void setPage(long pageNum, String mimeType) {
+                this.pageNum = pageNum;
+                this.mimeType = mimeType;
+            }
+
+            @Override
+            public Optional<PageSnapshot> execute() throws SQLException {
+                if (stmt == null) {
+                    stmt = conn.prepareStatement(sql);
+                }
+                stmt.setLong(1, pageNum);
+                stmt.setString(2, mimeType);
+                try (ResultSet res = stmt.executeQuery()) {
+                    if (!res.next()) return Optional.empty();
+                    return Optional.of(new PageSnapshot(pageNum, mimeType, res.getBytes(3), res.getString(1),
+                            res.getObject(2, OffsetDateTime.class)));
+                }
+            }
+
+            @Override
+            public void close() {
+                close(stmt);
+                stmt = null;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@code LastPageSnapshotOp}
+     *
+     * @param conn the connection to use
+     * @param meta the metadata of the event table
+     * @return a {@code LastPageSnapshotOp}
+     */
+    public LastPageSnapshotOp mkLastPageSnapshotOp(final Connection conn, final JdbcEventStoreMetadata meta) {
+        final String sql = statementsFor(meta).lastPageSnapshot;
+        return new LastPageSnapshotOp() {
+            private String mimeType;
+
+            @Override
+            public void setMimeType(String mimeType) {
+                this.mimeType = mimeType;
+            }
 
+            @Override
+            public Long execute() throws SQLException {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, mimeType);
+                    try (ResultSet res = stmt.executeQuery()) {
+                        res.next();
+                        return res.getLong(1);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates an {@code AdvisoryLockOp} that tries to acquire an advisory lock, without waiting for it.
+     *
+     * @param conn the connection to use. The lock is held by the session of this connection.
+     * @param key  the key of the lock
+     * @return an {@code AdvisoryLockOp}
+     */
+    public AdvisoryLockOp mkTryAdvisoryLockOp(final Connection conn, final long key) {
+        return () -> executeLockStatement(conn, TRY_ADVISORY_LOCK_STATEMENT, key);
+    }
+
+    /**
+     * Creates an {@code AdvisoryLockOp} that releases an advisory lock held by the session of the connection.
+     *
+     * @param conn the connection to use
+     * @param key  the key of the lock
+     * @return an {@code AdvisoryLockOp}
+     */
+    public AdvisoryLockOp mkAdvisoryUnlockOp(final Connection conn, final long key) {
+        return () -> executeLockStatement(conn, ADVISORY_UNLOCK_STATEMENT, key);
+    }
+
+    /**
+     * Returns the advisory lock key that guards indexing of the event table.
+     *
+     * @param meta the metadata of the event table
+     * @return the advisory lock key
+     */
+    public long indexLockKey(JdbcEventStoreMetadata meta) {
+        return ("atomium.index." + meta.getTableName()).hashCode();
+    }
+
+    private static boolean executeLockStatement(Connection conn, String sql, long key) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, key);
+            try (ResultSet res = stmt.executeQuery()) {
+                return res.next() && res.getBoolean(1);
+            }
+        }
+    }
+
+    private Statements statementsFor(JdbcEventStoreMetadata meta) {
+        return statements.computeIfAbsent(meta, Statements::new);
+    }
+
+    /**
+     * An index on an event table, with the statements that create it with the table, and that add it to an existing
+     * table without blocking writes.
+     */
+    private static final class TableIndex {
+
+        final String qualifiedName;
+        final String create;
+        final String migrate;
+
+        TableIndex(String schema, String name, String template, String... args) {
+            this.qualifiedName = schema + name;
+            this.create = render(template, "", name, args);
+            this.migrate = render(template, ONLINE_INDEX_OPTIONS, name, args);
+        }
+
+        private static String render(String template, String options, String name, String... args) {
+            Object[] params = new Object[args.length + 2];
+            params[0] = options;
+            params[1] = name;
+            System.arraycopy(args, 0, params, 2, args.length);
+            return String.format(template, params);
+        }
+    }
+
+    /**
+     * The SQL statements for an event table.
+     * <p>
+     * These are rendered once per {@code JdbcEventStoreMetadata}, rather than on every operation.
+     */
+    private static final class Statements {
+
+        final String select;
+        final String maxSeqNo;
+        final String createTable;
+        final String copy;
+        final String index;
+        final String incrementalIndex;
+        final String listen;
+        final String createPageSnapshotTable;
+        final String savePageSnapshot;
+        final String getPageSnapshot;
+        final String lastPageSnapshot;
+        final private List<TableIndex> indexes;
+        final private TableIndex updatedIndex;
+        final private String insertInto;
+        final private String insertValues;
+        final private ConcurrentMap<Integer, String> inserts = new ConcurrentHashMap<>();
+
+        Statements(JdbcEventStoreMetadata meta) {
+            select = String.format(SELECT_STATEMENT,
+                    meta.getIdColumnName(),
+                    meta.getEntryValueColumnName(),
+                    meta.getUpdatedColumnName(),
+                    meta.getTableName(),
+                    meta.getSequenceNoColumnName(),
+                    meta.getSequenceNoColumnName());
+            maxSeqNo = String.format(MAX_SEQNO_STATEMENT, meta.getSequenceNoColumnName(), meta.getTableName());
+            createTable = String.format(CREATE_TABLE_SQL,
+                    meta.getTableName(),
+                    meta.getPrimaryKeyColumnName(),
+                    meta.getSequenceNoColumnName(),
+                    meta.getIdColumnName(),
+                    meta.getUpdatedColumnName(),
+                    meta.getEntryValueColumnName(),
+                    meta.getEntryValColumnType());
+            copy = String.format(COPY_STATEMENT,
+                    meta.getTableName(),
+                    meta.getIdColumnName(),
+                    meta.getUpdatedColumnName(),
+                    meta.getEntryValueColumnName());
+            index = INDEX_STATEMENT
+                    .replace("${table}", meta.getTableName())
+                    .replace("${sequence-field}", meta.getSequenceNoColumnName())
+                    .replace("${idField}", meta.getPrimaryKeyColumnName())
+                    .replace("${order-by}", meta.getPrimaryKeyColumnName());
+            incrementalIndex = INCREMENTAL_INDEX_STATEMENT
+                    .replace("${table}", meta.getTableName())
+                    .replace("${sequence-field}", meta.getSequenceNoColumnName())
+                    .replace("${idField}", meta.getPrimaryKeyColumnName());
+            listen = String.format(LISTEN_STATEMENT, meta.getNotificationChannel().replace("\"", "\"\""));
+            insertInto = String.format(INSERT_INTO,
+                    meta.getTableName(),
+                    meta.getIdColumnName(),
+                    meta.getUpdatedColumnName(),
+                    meta.getEntryValueColumnName());
+            insertValues = String.format(INSERT_VALUES, meta.getEntryValColumnType());
+            createPageSnapshotTable = String.format(CREATE_PAGE_SNAPSHOT_TABLE_SQL, meta.getPageSnapshotTableName());
+            savePageSnapshot = String.format(SAVE_PAGE_SNAPSHOT_STATEMENT, meta.getPageSnapshotTableName());
+            getPageSnapshot = String.format(GET_PAGE_SNAPSHOT_STATEMENT, meta.getPageSnapshotTableName());
+            lastPageSnapshot = String.format(LAST_PAGE_SNAPSHOT_STATEMENT, meta.getPageSnapshotTableName());
+
+            String table = meta.getTableName();
+            // index names can not be qualified with a schema, and are created in the schema of the table
+            int dot = table.lastIndexOf('.');
+            String schema = dot < 0 ? "" : table.substring(0, dot + 1);
+            String base = table.substring(dot + 1);
+            indexes = List.of(
+                    new TableIndex(schema, base + "_" + meta.getSequenceNoColumnName() + "_key",
+                            CREATE_SEQNO_INDEX_SQL, table, meta.getSequenceNoColumnName()),
+                    new TableIndex(schema, base + "_unindexed_idx",
+                            CREATE_UNINDEXED_INDEX_SQL, table, meta.getPrimaryKeyColumnName(), meta.getSequenceNoColumnName())
+            );
+            updatedIndex = new TableIndex(schema, base + "_" + meta.getUpdatedColumnName() + "_brin",
+                    CREATE_UPDATED_INDEX_SQL, table, meta.getUpdatedColumnName());
+        }
+
+        List<TableIndex> indexes(boolean withUpdatedIndex) {
+            if (!withUpdatedIndex) return indexes;
+            List<TableIndex> all = new ArrayList<>(indexes);
+            all.add(updatedIndex);
+            return all;
+        }
+
+        /**
+         * Returns the INSERT statement for the given number of rows
+         */
+        String insert(int rows) {
+            return inserts.computeIfAbsent(rows,
+                    n -> insertInto + String.join(", ", Collections.nCopies(n, insertValues)));
+        }
+    }
+
+}
@@ -4,8 +4,10 @@ import be.wegenenverkeer.atomium.api.Codec;
 import be.wegenenverkeer.atomium.api.Event;
 import be.wegenenverkeer.atomium.api.EventDao;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -17,12 +19,41 @@ public class PostgresEventStore<T> implements JdbcEventDaoFactory<T> {
     private final Indexer indexer;
     private final Codec<T, String> codec;
     private final JdbcEventStoreMetadata meta;
-    private final JdbcDialect dialect = PostgresDialect.INSTANCE;
+    private final PostgresDialect dialect = PostgresDialect.INSTANCE;
+    private final int batchSize;
+    private final int fetchSize;
 
 
     public PostgresEventStore(JdbcEventStoreMetadata meta, Codec<T, String> codec) {
+        this(meta, codec, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param meta      the metadata of the event table
+     * @param codec     the codec for the event values
+     * @param batchSize the maximum number of events to write to the database in one round-trip
+     */
+    public PostgresEventStore(JdbcEventStoreMetadata meta, Codec<T, String> codec, int batchSize) {
+        this(meta, codec, batchSize, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param meta      the metadata of the event table
+     * @param codec     the codec for the event values
+     * @param batchSize the maximum number of events to write to the database in one round-trip
+     * @param fetchSize the number of rows to fetch from the database in one round-trip when streaming events
+     */
+    public PostgresEventStore(JdbcEventStoreMetadata meta, Codec<T, String> codec, int batchSize, int fetchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be strictly positive");
+        if (fetchSize < 1) throw new IllegalArgumentException("Fetch size must be strictly positive");
         this.meta = meta;
         this.codec = codec;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
         this.indexer = new Indexer(dialect, meta);
     }
 
@@ -30,6 +61,40 @@ public class PostgresEventStore<T> implements JdbcEventDaoFactory<T> {
         this.indexer.index(conn);
     }
 
+    /**
+     * Indexes at most {@code maxRows} events
+     *
+     * @param conn    the connection to use
+     * @param maxRows the maximum number of events to index
+     * @return the number of events indexed
+     * @throws SQLException when indexing fails
+     * @see Indexer#indexIncrementally(Connection, int)
+     */
+    public int indexIncrementally(Connection conn, int maxRows) throws SQLException {
+        return this.indexer.indexIncrementally(conn, maxRows);
+    }
+
+    /**
+     * Bulk-loads events using the Postgres COPY protocol.
+     * <p>
+     * This is intended for backfills and migrations of large numbers of events. The loaded events are in the same order
+     * as the iterator, and become visible in the feed once they are indexed (see {@link #index(Connection)}).
+     *
+     * @param conn   the connection to use
+     * @param events the events to load
+     * @return the number of events loaded
+     * @throws SQLException when the events could not be loaded
+     */
+    public long bulkLoad(Connection conn, Iterator<Event<T>> events) throws SQLException {
+        CopyEventsOp<T> op = dialect.mkCopyEventsOp(conn, codec, meta);
+        op.setEvents(events);
+        return op.execute();
+    }
+
+    public long bulkLoad(Connection conn, Iterable<Event<T>> events) throws SQLException {
+        return bulkLoad(conn, events.iterator());
+    }
+
     public List<Event<T>> indexAndRetrieve(Connection conn, long startNum, long size) throws SQLException {
         if (!conn.getAutoCommit()) throw new IllegalArgumentException("This method requires auto-commit mode on the connection");
         index(conn);
@@ -37,6 +102,31 @@ public class PostgresEventStore<T> implements JdbcEventDaoFactory<T> {
         return dao.getEvents(startNum, size);
     }
 
+    /**
+     * Indexes the pending events, and then reads the requested events.
+     * <p>
+     * Indexing runs in auto-commit mode on a connection from the {@code DataSource}, so that the read, on a separate
+     * read-only connection, sees the indexed events. The connection's auto-commit mode is restored afterwards.
+     *
+     * @param dataSource the {@code DataSource}
+     * @param startNum   the sequence number of the first event
+     * @param size       the maximum number of events
+     * @return the events
+     * @throws SQLException when indexing fails
+     */
+    public List<Event<T>> indexAndRetrieve(DataSource dataSource, long startNum, long size) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(true);
+            try {
+                index(conn);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return createDao(dataSource).getEvents(startNum, size);
+    }
+
     @Override
     public Codec<T, String> getEntryValueCodec() {
         return this.codec;
@@ -52,5 +142,15 @@ public class PostgresEventStore<T> implements JdbcEventDaoFactory<T> {
         return dialect;
     }
 
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
 }
 
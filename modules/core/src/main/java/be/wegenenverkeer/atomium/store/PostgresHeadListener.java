@@ -0,0 +1,151 @@
+package be.wegenenverkeer.atomium.store;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Listens for head-of-feed notifications of a Postgres event table.
+ * <p>
+ * The {@code Indexer} issues a NOTIFY on the notification channel of the event table (see
+ * {@link JdbcEventStoreMetadata#getNotificationChannel()}) whenever it assigns new sequence numbers. This listener
+ * keeps a dedicated connection LISTENing on that channel, and passes the new head sequence number to its subscribers.
+ * This allows caches and long-poll endpoints to react to new events without polling the event table.
+ * <p>
+ * When the listening connection fails, the listener reconnects and re-reads the head of the feed, so that no change is
+ * missed.
+ */
+public class PostgresHeadListener implements AutoCloseable {
+
+    private final static Logger logger = LoggerFactory.getLogger(PostgresHeadListener.class);
+
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcEventStoreMetadata meta;
+    private final PostgresDialect dialect = PostgresDialect.INSTANCE;
+    private final List<LongConsumer> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong head = new AtomicLong(-1);
+    private final Thread thread;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates an instance
+     *
+     * @param dataSource the {@code DataSource} for the listening connection
+     * @param meta       the metadata of the event table
+     */
+    public PostgresHeadListener(DataSource dataSource, JdbcEventStoreMetadata meta) {
+        this.dataSource = dataSource;
+        this.meta = meta;
+        this.thread = new Thread(this::listen, "atomium-listener-" + meta.getTableName());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts listening
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Returns the most recently notified head-of-feed sequence number
+     *
+     * @return the highest assigned sequence number, or -1 if not known (yet)
+     */
+    public long getHeadSequenceNo() {
+        return head.get();
+    }
+
+    /**
+     * Registers a subscriber that receives the new head-of-feed sequence number on every change.
+     * <p>
+     * Subscribers are called on the listener thread, and should return quickly.
+     *
+     * @param subscriber the subscriber
+     * @return an {@code AutoCloseable} that unsubscribes the subscriber
+     */
+    public AutoCloseable subscribe(LongConsumer subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    private void listen() {
+        while (!closed) {
+            try (Connection conn = dataSource.getConnection();
+                 TotalSizeOp totalSize = dialect.mkTotalSizeOp(conn, meta)) {
+                conn.setAutoCommit(true);
+                dialect.mkListenOp(conn, meta).execute();
+                // read the head after LISTEN, so that no change between reading and listening is lost
+                publish(totalSize.execute() - 1);
+                PGConnection pgConn = conn.unwrap(PGConnection.class);
+                while (!closed) {
+                    PGNotification[] notifications = pgConn.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        publish(headOf(notifications, totalSize));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                // a failure must not end the listener thread
+                if (closed) return;
+                logger.warn("Listening on {} failed, reconnecting", meta.getNotificationChannel(), e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private long headOf(PGNotification[] notifications, TotalSizeOp totalSize) throws SQLException {
+        long max = -1;
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            if (payload == null || payload.isEmpty()) {
+                // the notifier did not send the new head
+                return totalSize.execute() - 1;
+            }
+            try {
+                max = Math.max(max, Long.parseLong(payload));
+            } catch (NumberFormatException e) {
+                logger.warn("Malformed notification payload '{}' on {}, reading the head instead", payload, meta.getNotificationChannel());
+                return totalSize.execute() - 1;
+            }
+        }
+        return max;
+    }
+
+    private void publish(long headSequenceNo) {
+        long previous = head.getAndAccumulate(headSequenceNo, Math::max);
+        if (headSequenceNo <= previous) return;
+        for (LongConsumer subscriber : subscribers) {
+            try {
+                subscriber.accept(headSequenceNo);
+            } catch (RuntimeException e) {
+                logger.warn("Head-of-feed subscriber failed", e);
+            }
+        }
+    }
+
+    /**
+     * Stops listening, and closes the listening connection
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+}
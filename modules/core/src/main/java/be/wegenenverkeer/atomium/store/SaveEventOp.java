@@ -11,4 +11,22 @@ public interface SaveEventOp<T> extends JdbcOp<Boolean> {
 
     public void set(Event<T> event) throws SQLException;
 
+    /**
+     * Adds the event to the current batch.
+     * <p>
+     * When the number of pending events reaches the batch size of this operation, the batch is written to the database.
+     *
+     * @param event the event to save
+     * @throws SQLException when the batch could not be written
+     */
+    public void addBatch(Event<T> event) throws SQLException;
+
+    /**
+     * Writes all events that are still pending in the current batch.
+     *
+     * @return the number of events written since the previous call to this method
+     * @throws SQLException when the batch could not be written
+     */
+    public int executeBatch() throws SQLException;
+
 }
@@ -0,0 +1,12 @@
+package be.wegenenverkeer.atomium.store;
+
+/**
+ * Writes a page snapshot, unless a snapshot of the same page and mime type already exists.
+ * <p>
+ * The operation returns true if the snapshot was written.
+ */
+public interface SavePageSnapshotOp extends JdbcOp<Boolean> {
+
+    void setSnapshot(PageSnapshot snapshot);
+
+}
@@ -0,0 +1,23 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Event;
+
+import java.util.stream.Stream;
+
+/**
+ * Reads a range of events as a {@code Stream}, fetching the rows from the database in chunks.
+ * <p>
+ * The returned stream holds the database resources, and must be closed after use.
+ */
+public interface StreamEventsOp<T> extends JdbcOp<Stream<Event<T>>> {
+
+    void setRange(long startNum, long size);
+
+    /**
+     * Sets the number of rows that are fetched from the database in one round-trip
+     *
+     * @param fetchSize the number of rows per round-trip
+     */
+    void setFetchSize(int fetchSize);
+
+}
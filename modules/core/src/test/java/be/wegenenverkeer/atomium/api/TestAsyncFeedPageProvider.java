@@ -0,0 +1,73 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestAsyncFeedPageProvider {
+
+    StoreFixture<String> fixture;
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    AsyncEventReader<String> asyncReader;
+
+    @Before
+    public void before() {
+        fixture = new StoreFixture<>();
+        fixture.loadEntries(35, "test string");
+        asyncReader = new AsyncEventReader<>() {
+            @Override
+            public CompletionStage<List<Event<String>>> getEvents(long startNum, long size) {
+                return CompletableFuture.supplyAsync(() -> fixture.store.getEvents(startNum, size), executor);
+            }
+
+            @Override
+            public CompletionStage<Long> totalNumberOfEvents() {
+                return CompletableFuture.supplyAsync(fixture.store::totalNumberOfEvents, executor);
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void pagesAreSameAsSynchronousProvider() throws Exception {
+        AsyncFeedPageProvider<String> provider = FeedPageProviderAdapters.adaptAsync(asyncReader, meta);
+        FeedPageProvider<String> reference = FeedPageProviderAdapters.adapt(fixture.store, meta);
+
+        assertEquals(reference.getHeadOfFeedRef(), provider.getHeadOfFeedRef().toCompletableFuture().get());
+        for (long p = 0; p <= 3; p++) {
+            FeedPage<String> expected = reference.getFeedPage(page(p));
+            FeedPage<String> received = provider.getFeedPage(page(p)).toCompletableFuture().get();
+            received.setUpdated(expected.getUpdated());
+            assertEquals(expected, received);
+        }
+    }
+
+    @Test
+    public void pageBeyondHeadFails() throws InterruptedException {
+        AsyncFeedPageProvider<String> provider = FeedPageProviderAdapters.adaptAsync(asyncReader, meta);
+        try {
+            provider.getFeedPage(page(4)).toCompletableFuture().get();
+            fail("Expected the page request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IndexOutOfBoundsException);
+        }
+    }
+}
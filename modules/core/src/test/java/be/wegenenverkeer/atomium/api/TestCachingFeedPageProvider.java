@@ -0,0 +1,91 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.format.JacksonFeedPageCodec;
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static be.wegenenverkeer.atomium.api.FeedPageProviderAdapters.adapt;
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestCachingFeedPageProvider {
+
+    StoreFixture<String> fixture;
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+    FeedPageProvider<String> dao;
+
+    @Before
+    public void before() {
+        this.fixture = new StoreFixture<>();
+        this.fixture.loadEntries(35, "test string");
+        this.dao = adapt(this.fixture.store, meta);
+    }
+
+    @Test
+    public void completedPagesAreCached() {
+        CachingFeedPageProvider<String> provider = new CachingFeedPageProvider<>(dao, 1000, p -> 10);
+        FeedPage<String> first = provider.getFeedPage(page(1));
+        assertSame(first, provider.getFeedPage(page(1)));
+        assertEquals(1, provider.getHitCount());
+        assertEquals(1, provider.getMissCount());
+        assertEquals(10, provider.getSizeInBytes());
+    }
+
+    @Test
+    public void headPageBypassesCache() {
+        CachingFeedPageProvider<String> provider = new CachingFeedPageProvider<>(dao, 1000, p -> 10);
+        provider.getFeedPage(page(3));
+        fixture.loadEntries(2, "more");
+        assertEquals(7, provider.getFeedPage(page(3)).getEntries().size());
+        assertEquals(0, provider.getHitCount());
+        assertEquals(0, provider.getSizeInBytes());
+    }
+
+    @Test
+    public void leastRecentlyUsedPagesAreEvictedWhenBoundIsExceeded() {
+        CachingFeedPageProvider<String> provider = new CachingFeedPageProvider<>(dao, 25, p -> 10);
+        provider.getFeedPage(page(0));
+        provider.getFeedPage(page(1));
+        provider.getFeedPage(page(0)); // page 1 is now least recently used
+        provider.getFeedPage(page(2));
+        assertEquals(20, provider.getSizeInBytes());
+        provider.getFeedPage(page(0));
+        provider.getFeedPage(page(1));
+        assertEquals(2, provider.getHitCount());
+        assertEquals(4, provider.getMissCount());
+    }
+
+    @Test
+    public void encodedSizeCountsUtf8Bytes() {
+        fixture.loadEntries(10, "caf\u00e9 \u20ac \ud83d\ude00");
+        FeedPage<String> page = dao.getFeedPage(page(4));
+        JacksonFeedPageCodec<String> codec = new JacksonFeedPageCodec<>(String.class);
+
+        // a StreamingCodec is weighed by the bytes it streams
+        assertEquals(codec.encodeToByteBuffer(page).remaining(), CachingFeedPageProvider.encodedSize(codec).applyAsLong(page));
+
+        // other codecs are weighed by the UTF-8 encoding of the encoded String
+        FeedPageCodec<String, String> stringOnly = new FeedPageCodec<>() {
+            @Override
+            public String getMimeType() {
+                return codec.getMimeType();
+            }
+
+            @Override
+            public String encode(FeedPage<String> p) {
+                return codec.encode(p);
+            }
+
+            @Override
+            public FeedPage<String> decode(String encoded) {
+                return codec.decode(encoded);
+            }
+        };
+        assertEquals(codec.encode(page).getBytes(StandardCharsets.UTF_8).length,
+                CachingFeedPageProvider.encodedSize(stringOnly).applyAsLong(page));
+    }
+}
@@ -0,0 +1,129 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.wegenenverkeer.atomium.api.FeedPageProviderAdapters.adapt;
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class TestCoalescingFeedPageProvider {
+
+    static final int NUM_REQUESTS = 8;
+
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+    BlockingProvider blocking;
+
+    @Before
+    public void before() {
+        StoreFixture<String> fixture = new StoreFixture<>();
+        fixture.loadEntries(20, "test string");
+        this.blocking = new BlockingProvider(adapt(fixture.store, meta));
+    }
+
+    @Test
+    public void concurrentRequestsShareOneComputation() throws Exception {
+        CoalescingFeedPageProvider<String> provider = new CoalescingFeedPageProvider<>(blocking);
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_REQUESTS);
+        try {
+            List<Future<FeedPage<String>>> results = new ArrayList<>();
+            for (int i = 0; i < NUM_REQUESTS; i++) {
+                results.add(executor.submit(() -> provider.getFeedPage(page(0))));
+            }
+            while (provider.getCoalescedCount() < NUM_REQUESTS - 1) {
+                Thread.sleep(5);
+            }
+            blocking.release.countDown();
+            FeedPage<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<FeedPage<String>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, blocking.pageCalls.get());
+        assertEquals(NUM_REQUESTS - 1, provider.getCoalescedCount());
+    }
+
+    @Test
+    public void sequentialRequestsAreNotCoalesced() {
+        blocking.release.countDown();
+        CoalescingFeedPageProvider<String> provider = new CoalescingFeedPageProvider<>(blocking);
+        provider.getFeedPage(page(0));
+        provider.getFeedPage(page(0));
+        assertEquals(2, blocking.pageCalls.get());
+        assertEquals(0, provider.getCoalescedCount());
+    }
+
+    @Test
+    public void errorIsPassedToWaitingRequests() throws Exception {
+        CoalescingFeedPageProvider<String> provider = new CoalescingFeedPageProvider<>(blocking);
+        blocking.error = new StackOverflowError("failed");
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_REQUESTS);
+        try {
+            List<Future<FeedPage<String>>> results = new ArrayList<>();
+            for (int i = 0; i < NUM_REQUESTS; i++) {
+                results.add(executor.submit(() -> provider.getFeedPage(page(0))));
+            }
+            while (provider.getCoalescedCount() < NUM_REQUESTS - 1) {
+                Thread.sleep(5);
+            }
+            blocking.release.countDown();
+            for (Future<FeedPage<String>> result : results) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                    fail("Expected the request to fail");
+                } catch (ExecutionException e) {
+                    assertSame(blocking.error, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the failed request is no longer in flight
+        blocking.error = null;
+        assertEquals(10, provider.getFeedPage(page(0)).getEntries().size());
+    }
+
+    static class BlockingProvider implements FeedPageProvider<String> {
+        final FeedPageProvider<String> delegate;
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger pageCalls = new AtomicInteger();
+        volatile Error error;
+
+        BlockingProvider(FeedPageProvider<String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FeedPage<String> getFeedPage(FeedPageRef ref) {
+            pageCalls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            if (error != null) throw error;
+            return delegate.getFeedPage(ref);
+        }
+
+        @Override
+        public FeedPageRef getHeadOfFeedRef() {
+            return delegate.getHeadOfFeedRef();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestETagStrategy {
+
+    private final static Logger logger = LoggerFactory.getLogger(TestETagStrategy.class);
+
+    static final int NUM_PAGES = 50;
+    static final int NUM_ROUNDS = 200;
+
+    StoreFixture<String> fixture;
+    FeedMetadata meta = new FeedMetadata(100, "http://localhost/feeds/test", "Feed name");
+    FeedPageProvider<String> provider;
+
+    @Before
+    public void before() {
+        this.fixture = new StoreFixture<>();
+        this.fixture.loadEntries(NUM_PAGES * 100 + 35, "test string");
+        this.provider = FeedPageProviderAdapters.adapt(fixture.store, meta);
+    }
+
+    @Test
+    public void md5IsCompatibleWithPreviousImplementation() throws NoSuchAlgorithmException {
+        for (int p = 0; p <= NUM_PAGES; p++) {
+            FeedPage<String> page = provider.getFeedPage(page(p));
+            assertEquals(legacyETag(page), page.calcETag());
+            assertEquals(legacyETag(page), ETagStrategy.MD5.calcETag(page));
+        }
+    }
+
+    @Test
+    public void etagsChangeWhenHeadPageChanges() {
+        for (ETagStrategy strategy : List.of(ETagStrategy.MD5, ETagStrategy.FAST_HASH, ETagStrategy.STRUCTURAL)) {
+            FeedPageRef head = provider.getHeadOfFeedRef();
+            String before = provider.getFeedPage(head).getETag(strategy);
+            assertEquals(before, provider.getFeedPage(head).getETag(strategy));
+            fixture.loadEntries(1, "more");
+            assertNotEquals(before, provider.getFeedPage(head).getETag(strategy));
+            assertNotEquals(provider.getFeedPage(page(0)).getETag(strategy), provider.getFeedPage(page(1)).getETag(strategy));
+        }
+    }
+
+    @Test
+    public void etagIsMemoizedUntilPageIsModified() {
+        FeedPage<String> page = provider.getFeedPage(provider.getHeadOfFeedRef());
+        String etag = page.getETag(ETagStrategy.FAST_HASH);
+        assertSame(etag, page.getETag(ETagStrategy.FAST_HASH));
+        assertEquals(page.calcETag(), page.getETag(ETagStrategy.MD5));
+
+        page.setEntries(new ArrayList<>(page.getEntries().subList(1, page.getEntries().size())));
+        assertNotEquals(etag, page.getETag(ETagStrategy.FAST_HASH));
+    }
+
+    @Test
+    public void compareETagCost() throws NoSuchAlgorithmException {
+        List<FeedPage<String>> pages = new ArrayList<>();
+        for (int p = 0; p < NUM_PAGES; p++) {
+            pages.add(provider.getFeedPage(page(p)));
+        }
+        // warm up
+        timeLegacy(pages);
+        for (ETagStrategy strategy : List.of(ETagStrategy.MD5, ETagStrategy.FAST_HASH, ETagStrategy.STRUCTURAL)) {
+            time(pages, strategy);
+        }
+
+        logger.info("ETag of {} pages of {} entries: legacy MD5 {} us/page", NUM_PAGES, meta.getPageSize(), (long) timeLegacy(pages));
+        logger.info("ETag of {} pages of {} entries: MD5 {} us/page", NUM_PAGES, meta.getPageSize(), (long) time(pages, ETagStrategy.MD5));
+        logger.info("ETag of {} pages of {} entries: FAST_HASH {} us/page", NUM_PAGES, meta.getPageSize(), (long) time(pages, ETagStrategy.FAST_HASH));
+        logger.info("ETag of {} pages of {} entries: STRUCTURAL {} us/page", NUM_PAGES, meta.getPageSize(), (long) time(pages, ETagStrategy.STRUCTURAL));
+    }
+
+    private double time(List<FeedPage<String>> pages, ETagStrategy strategy) {
+        long start = System.nanoTime();
+        for (int r = 0; r < NUM_ROUNDS; r++) {
+            for (FeedPage<String> page : pages) {
+                strategy.calcETag(page);
+            }
+        }
+        return (System.nanoTime() - start) / 1e3 / (NUM_ROUNDS * pages.size());
+    }
+
+    private double timeLegacy(List<FeedPage<String>> pages) throws NoSuchAlgorithmException {
+        long start = System.nanoTime();
+        for (int r = 0; r < NUM_ROUNDS; r++) {
+            for (FeedPage<String> page : pages) {
+                legacyETag(page);
+            }
+        }
+        return (System.nanoTime() - start) / 1e3 / (NUM_ROUNDS * pages.size());
+    }
+
+    /**
+     * The ETag computation as implemented before the introduction of {@code ETagStrategy}
+     */
+    private static String legacyETag(FeedPage<String> page) throws NoSuchAlgorithmException {
+        MessageDigest message = MessageDigest.getInstance("MD5");
+        message.update(page.getBase().getBytes(StandardCharsets.UTF_8));
+        message.update(page.getId().getBytes(StandardCharsets.UTF_8));
+        message.update(page.getUpdated().toString().getBytes(StandardCharsets.UTF_8));
+        page.getLinks().forEach(link -> message.update(link.toString().getBytes(StandardCharsets.UTF_8)));
+        page.getEntries().forEach(entry -> {
+            message.update(entry.getId().getBytes(StandardCharsets.UTF_8));
+            message.update(entry.getUpdated().toString().getBytes(StandardCharsets.UTF_8));
+        });
+        return new BigInteger(1, message.digest()).toString(16);
+    }
+}
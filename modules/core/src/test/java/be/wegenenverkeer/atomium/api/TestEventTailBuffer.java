@@ -0,0 +1,118 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static be.wegenenverkeer.atomium.api.FeedPageProviderAdapters.adapt;
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestEventTailBuffer {
+
+    StoreFixture<String> fixture;
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+
+    @Before
+    public void before() {
+        this.fixture = new StoreFixture<>();
+        this.fixture.loadEntries(35, "test string");
+    }
+
+    @Test
+    public void catchUpKeepsMostRecentEvents() {
+        EventTailBuffer<String> buffer = new EventTailBuffer<>(21);
+        assertEquals(21, buffer.catchUp(fixture.store, 35));
+        assertEquals(14, buffer.getFirstSequenceNo());
+        assertEquals(35, buffer.getEndSequenceNo());
+
+        fixture.loadEntries(5, "more");
+        assertEquals(5, buffer.catchUp(fixture.store, 40));
+        assertEquals(19, buffer.getFirstSequenceNo());
+        assertEquals(ids(fixture.store.getEvents(19, 21)), ids(buffer.getEvents(19, 30).get()));
+        assertFalse(buffer.getEvents(18, 10).isPresent());
+    }
+
+    @Test
+    public void appendSkipsKnownEventsAndResetsOnGap() {
+        EventTailBuffer<String> buffer = new EventTailBuffer<>(10);
+        buffer.append(0, fixture.store.getEvents(0, 5));
+        buffer.append(3, fixture.store.getEvents(3, 4));
+        assertEquals(7, buffer.getEndSequenceNo());
+        assertEquals(ids(fixture.store.getEvents(0, 7)), ids(buffer.getEvents(0, 10).get()));
+
+        buffer.append(20, fixture.store.getEvents(20, 2));
+        assertEquals(20, buffer.getFirstSequenceNo());
+        assertEquals(22, buffer.getEndSequenceNo());
+    }
+
+    @Test
+    public void headPagesAreServedFromBuffer() {
+        EventTailBuffer<String> buffer = new EventTailBuffer<>(21);
+        buffer.catchUp(fixture.store, fixture.store.totalNumberOfEvents());
+        TailBufferedEventReader<String> reader = new TailBufferedEventReader<>(fixture.store, buffer);
+        FeedPageProvider<String> provider = adapt(reader, meta);
+        FeedPageProvider<String> reference = adapt(fixture.store, meta);
+
+        for (long p = 0; p <= 3; p++) {
+            assertEquals(reference.getFeedPage(page(p)).getEntries(), provider.getFeedPage(page(p)).getEntries());
+        }
+        assertEquals(2, reader.getHitCount());
+        assertEquals(2, reader.getMissCount());
+        assertTrue(buffer.getEvents(30, 11).isPresent());
+    }
+
+    @Test
+    public void laggingBufferFallsBackToStore() {
+        EventTailBuffer<String> buffer = new EventTailBuffer<>(21);
+        buffer.catchUp(fixture.store, fixture.store.totalNumberOfEvents());
+        TailBufferedEventReader<String> reader = new TailBufferedEventReader<>(fixture.store, buffer);
+        fixture.loadEntries(3, "more");
+        buffer.markHead(fixture.store.totalNumberOfEvents());
+
+        // the buffer holds only the first 5 events of the range
+        assertEquals(ids(fixture.store.getEvents(30, 10)), ids(reader.getEvents(30, 10)));
+        assertEquals(8, reader.getEvents(30, 10).size());
+        assertEquals(0, reader.getHitCount());
+
+        buffer.catchUp(fixture.store, fixture.store.totalNumberOfEvents());
+        assertEquals(8, reader.getEvents(30, 10).size());
+        assertEquals(1, reader.getHitCount());
+    }
+
+    @Test
+    public void headPageReadsDoNotAskTheStoreForItsSize() {
+        AtomicInteger sizeQueries = new AtomicInteger();
+        EventReader<String> store = new EventReader<String>() {
+            @Override
+            public List<Event<String>> getEvents(long startNum, long size) {
+                return fixture.store.getEvents(startNum, size);
+            }
+
+            @Override
+            public Long totalNumberOfEvents() {
+                sizeQueries.incrementAndGet();
+                return fixture.store.totalNumberOfEvents();
+            }
+        };
+        EventTailBuffer<String> buffer = new EventTailBuffer<>(21);
+        buffer.catchUp(store, 35);
+        TailBufferedEventReader<String> reader = new TailBufferedEventReader<>(store, buffer);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(5, reader.getEvents(30, 11).size());
+        }
+        assertEquals(3, reader.getHitCount());
+        assertEquals(0, sizeQueries.get());
+    }
+
+    private static List<String> ids(List<Event<String>> events) {
+        return events.stream().map(Event::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,88 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.wegenenverkeer.atomium.api.FeedPageProviderAdapters.adapt;
+import static org.junit.Assert.assertEquals;
+
+public class TestHeadOfFeedCache {
+
+    StoreFixture<String> fixture;
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+    CountingReader reader;
+
+    @Before
+    public void before() {
+        this.fixture = new StoreFixture<>();
+        this.fixture.loadEntries(20, "test string");
+        this.reader = new CountingReader(fixture.store);
+    }
+
+    @Test
+    public void headIsLoadedOncePerInterval() {
+        FeedPageProvider<String> provider = adapt(reader, meta, new HeadOfFeedCache(Duration.ofHours(1)));
+        for (int i = 0; i < 10; i++) {
+            provider.getFeedPage(provider.getHeadOfFeedRef());
+        }
+        assertEquals(1, reader.totalCalls.get());
+    }
+
+    @Test
+    public void invalidationForcesReload() {
+        HeadOfFeedCache cache = new HeadOfFeedCache(Duration.ofHours(1));
+        FeedPageProvider<String> provider = adapt(reader, meta, cache);
+        assertEquals(2, provider.getHeadOfFeedRef().getPageNum());
+        fixture.loadEntries(10, "test");
+        assertEquals(2, provider.getHeadOfFeedRef().getPageNum());
+        cache.invalidate();
+        assertEquals(3, provider.getHeadOfFeedRef().getPageNum());
+        assertEquals(2, reader.totalCalls.get());
+    }
+
+    @Test
+    public void updatesAvoidReload() {
+        HeadOfFeedCache cache = new HeadOfFeedCache(Duration.ofHours(1));
+        FeedPageProvider<String> provider = adapt(reader, meta, cache);
+        assertEquals(2, provider.getHeadOfFeedRef().getPageNum());
+        fixture.loadEntries(10, "test");
+        cache.updateHeadSequenceNo(29);
+        assertEquals(3, provider.getHeadOfFeedRef().getPageNum());
+        cache.update(5); // never moves back
+        assertEquals(3, provider.getHeadOfFeedRef().getPageNum());
+        assertEquals(1, reader.totalCalls.get());
+    }
+
+    @Test
+    public void expiredValueIsReloaded() {
+        FeedPageProvider<String> provider = adapt(reader, meta, new HeadOfFeedCache(Duration.ZERO));
+        provider.getHeadOfFeedRef();
+        provider.getHeadOfFeedRef();
+        assertEquals(2, reader.totalCalls.get());
+    }
+
+    static class CountingReader implements EventReader<String> {
+        final EventReader<String> delegate;
+        final AtomicInteger totalCalls = new AtomicInteger();
+
+        CountingReader(EventReader<String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<Event<String>> getEvents(long startNum, long size) {
+            return delegate.getEvents(startNum, size);
+        }
+
+        @Override
+        public Long totalNumberOfEvents() {
+            totalCalls.incrementAndGet();
+            return delegate.totalNumberOfEvents();
+        }
+    }
+}
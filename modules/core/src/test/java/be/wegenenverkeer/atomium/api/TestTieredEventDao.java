@@ -0,0 +1,113 @@
+package be.wegenenverkeer.atomium.api;
+
+import be.wegenenverkeer.atomium.store.MemoryEventStore;
+import be.wegenenverkeer.atomium.store.StoreFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.wegenenverkeer.atomium.api.FeedPageProviderAdapters.adapt;
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+
+public class TestTieredEventDao {
+
+    StoreFixture<String> fixture;
+    CountingDao backing;
+    TieredEventDao<String> dao;
+    FeedMetadata meta = new FeedMetadata(10, "http://localhost/feeds/test", "Feed name");
+
+    @Before
+    public void before() {
+        this.fixture = new StoreFixture<>();
+        this.backing = new CountingDao();
+        this.dao = new TieredEventDao<>(backing, 21);
+        for (int i = 0; i < 35; i++) {
+            dao.push(fixture.mkEntry("test string"));
+        }
+    }
+
+    @Test
+    public void recentRangesAreServedFromMemory() {
+        List<Event<String>> expected = backing.getEvents(20, 15);
+        backing.reads.set(0);
+
+        // the first read catches up with the backing store
+        assertEquals(expected.subList(0, 10), dao.getEvents(20, 10));
+        assertEquals(1, backing.reads.get());
+
+        assertEquals(expected.subList(0, 10), dao.getEvents(20, 10));
+        assertEquals(expected.subList(5, 15), dao.getEvents(25, 20));
+        assertEquals(1, backing.reads.get());
+        assertEquals(3, dao.getHitCount());
+        assertEquals(0, dao.getMissCount());
+    }
+
+    @Test
+    public void olderRangesFallBackToBackingStore() {
+        assertEquals(backing.getEvents(0, 10), dao.getEvents(0, 10));
+        assertEquals(backing.getEvents(10, 10), dao.getEvents(10, 10));
+        assertEquals(0, dao.getHitCount());
+        assertEquals(2, dao.getMissCount());
+        assertEquals(1.0, dao.getMissRatio(), 0.0001);
+    }
+
+    @Test
+    public void tailCatchesUpWithNewEvents() {
+        dao.getEvents(30, 10);
+        dao.push(fixture.mkEntry("new"));
+        dao.push(fixture.mkEntry("new"));
+
+        List<Event<String>> events = dao.getEvents(30, 10);
+        assertEquals(7, events.size());
+        assertEquals("new", events.get(6).getValue());
+        assertEquals(2, dao.getHitCount());
+        assertEquals(36, dao.getTail().getEndSequenceNo() - 1);
+    }
+
+    @Test
+    public void feedPagesMatchBackingStore() {
+        FeedPageProvider<String> provider = adapt(dao, meta);
+        FeedPageProvider<String> reference = adapt(backing, meta);
+        for (int p = 0; p < 4; p++) {
+            assertEquals(reference.getFeedPage(page(p)).getEntries().size(), provider.getFeedPage(page(p)).getEntries().size());
+        }
+        assertEquals(0.5, dao.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void headPageReadsDoNotQueryTheSizeOfTheBackingStore() {
+        dao.getEvents(30, 11);
+        backing.sizeQueries.set(0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(5, dao.getEvents(30, 11).size());
+        }
+        assertEquals(0, backing.sizeQueries.get());
+
+        // a write through the DAO is picked up by the next read, with a single size query
+        dao.push(fixture.mkEntry("new"));
+        assertEquals(6, dao.getEvents(30, 11).size());
+        assertEquals(6, dao.getEvents(30, 11).size());
+        assertEquals(1, backing.sizeQueries.get());
+    }
+
+    static class CountingDao extends MemoryEventStore<String> {
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger sizeQueries = new AtomicInteger();
+
+        @Override
+        public Long totalNumberOfEvents() {
+            sizeQueries.incrementAndGet();
+            return super.totalNumberOfEvents();
+        }
+
+        @Override
+        public List<Event<String>> getEvents(long startNum, long size) {
+            reads.incrementAndGet();
+            return super.getEvents(startNum, size);
+        }
+    }
+}
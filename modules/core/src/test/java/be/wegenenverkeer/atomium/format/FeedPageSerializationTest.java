@@ -2,6 +2,8 @@ package be.wegenenverkeer.atomium.format;
 
 import be.wegenenverkeer.atomium.api.FeedPage;
 import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.api.RawJson;
+import be.wegenenverkeer.atomium.api.StreamingCodec;
 import be.wegenenverkeer.atomium.format.pub.AtomPubEntry;
 import be.wegenenverkeer.atomium.format.pub.Control;
 import be.wegenenverkeer.atomium.format.pub.Draft;
@@ -9,10 +11,15 @@ import org.junit.Test;
 
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.annotation.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoField;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -26,6 +33,7 @@ public class FeedPageSerializationTest {
     private FeedPageCodec<Customer, String> jsonCustomerCodec = new JacksonFeedPageCodec<>(Customer.class);
     private FeedPageCodec<String, String> jaxbStringCodec = new JaxbCodec<>(String.class);
     private FeedPageCodec<String, String> jsonStringCodec = new JacksonFeedPageCodec<>(String.class);
+    private FeedPageCodec<RawJson, String> rawJsonCodec = JacksonFeedPageCodec.rawJson();
 
 
     @Test
@@ -83,12 +91,48 @@ public class FeedPageSerializationTest {
 
 
 
+    @Test
+    public void testMarshallingFeedWithRawJson() throws Exception {
+        RawJson raw = RawJson.of(new JacksonCodec<>(Customer.class).encode(customer));
+
+        FeedBuilder<Customer> customers = FeedBuilder.customerFeed();
+        customers.addEntry(new AtomEntry<>("id", dateTime, new Content<>(customer, "application/json"), new ArrayList<>()));
+        FeedPage<RawJson> rawPage = new FeedPage<>(customers.feedPage.getId(), customers.feedPage.getBase(),
+                customers.feedPage.getTitle(), customers.feedPage.getGenerator(), dateTime);
+        rawPage.getLinks().addAll(customers.feedPage.getLinks());
+        rawPage.getEntries().add(new AtomEntry<>("id", dateTime, new Content<>(raw, "application/json"), new ArrayList<>()));
+
+        // the raw value is spliced in verbatim, so the result is identical to encoding the bound value
+        assertEquals(jsonCustomerCodec.encode(customers.feedPage), rawJsonCodec.encode(rawPage));
+        check(rawPage, rawJsonCodec);
+
+        // the byte stream encoding copies the UTF-8 bytes of the value, also for non-ASCII characters
+        RawJson nonAscii = RawJson.of("{\"name\":\"caf\u00e9 \ud83d\ude00\"}");
+        rawPage.getEntries().add(new AtomEntry<>("id2", dateTime, new Content<>(nonAscii, "application/json"), new ArrayList<>()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((JacksonFeedPageCodec<RawJson>) rawJsonCodec).encode(rawPage, out);
+        assertEquals(rawJsonCodec.encode(rawPage), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     private <E> void check(FeedPage feedPage, FeedPageCodec<E, String> codec) throws Exception {
         String json = marshal(feedPage, codec);
         FeedPage<E> feedPageFromJson = unmarshal(json, codec);
         assertEquals("different getUpdated on json:", feedPage.getUpdated(), feedPageFromJson.getUpdated());
         feedPageFromJson.setUpdated(feedPage.getUpdated());
         assertEquals(feedPage, feedPageFromJson);
+        if (codec instanceof StreamingCodec) {
+            checkStreaming(feedPage, (StreamingCodec<FeedPage<E>>) codec, json);
+        }
+    }
+
+    private <E> void checkStreaming(FeedPage<E> feedPage, StreamingCodec<FeedPage<E>> codec, String encoded) {
+        ByteBuffer buffer = codec.encodeToByteBuffer(feedPage);
+        byte[] bytes = Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+        // the streaming encoding is the UTF-8 encoding of the String encoding
+        assertEquals(encoded, new String(bytes, StandardCharsets.UTF_8));
+        FeedPage<E> decoded = codec.decode(new ByteArrayInputStream(bytes));
+        decoded.setUpdated(feedPage.getUpdated());
+        assertEquals(feedPage, decoded);
     }
 
     private <E> String marshal(FeedPage feedPage, FeedPageCodec<E, String> codec) throws Exception {
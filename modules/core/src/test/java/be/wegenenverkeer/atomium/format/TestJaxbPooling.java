@@ -0,0 +1,107 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.FeedPage;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+
+import jakarta.xml.bind.JAXBContext;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Compares the throughput of encoding and decoding feed pages with pooled marshallers with that of creating a
+ * marshaller per call, under multi-threaded load.
+ */
+public class TestJaxbPooling {
+
+    private final static Logger logger = LoggerFactory.getLogger(TestJaxbPooling.class);
+
+    static final int THREADS = 4;
+    static final int OPS_PER_THREAD = 2000;
+    static final int NUM_ENTRIES = 20;
+
+    @Test
+    public void contextIsSharedPerEntryType() {
+        assertSame(JaxbPool.forEntryType(String.class), JaxbPool.forEntryType(String.class));
+        assertSame(JaxbPool.forEntryType(String.class).getContext(), JaxbPool.forEntryType(String.class).getContext());
+    }
+
+    @Test
+    public void concurrentRoundTripsWithPooledCodec() throws Exception {
+        JaxbCodec<String> codec = new JaxbCodec<>(String.class);
+        FeedPage<String> page = mkPage();
+        run(() -> {
+            FeedPage<String> decoded = codec.decode(codec.encode(page));
+            assertEquals(page.getEntries().size(), decoded.getEntries().size());
+            return null;
+        });
+    }
+
+    @Test
+    public void compareThroughput() throws Exception {
+        JaxbCodec<String> pooled = new JaxbCodec<>(String.class);
+        JAXBContext context = JAXBContext.newInstance(FeedPage.class, Link.class, String.class);
+        FeedPage<String> page = mkPage();
+        Callable<Void> perCall = () -> {
+            StringWriter writer = new StringWriter();
+            context.createMarshaller().marshal(page, writer);
+            context.createUnmarshaller().unmarshal(new InputSource(new StringReader(writer.toString())));
+            return null;
+        };
+        Callable<Void> withPool = () -> {
+            pooled.decode(pooled.encode(page));
+            return null;
+        };
+
+        // warm up
+        run(perCall);
+        run(withPool);
+
+        logger.info("{} threads, round trips of a page of {} entries: new (un)marshaller per call {} ops/s, pooled {} ops/s",
+                THREADS, NUM_ENTRIES, (long) run(perCall), (long) run(withPool));
+    }
+
+    private double run(Callable<Void> op) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        op.call();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return THREADS * OPS_PER_THREAD / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private FeedPage<String> mkPage() {
+        OffsetDateTime now = OffsetDateTime.now();
+        FeedPage<String> page = new FeedPage<>("test", "http://localhost/feeds/test/", "test", null, now);
+        page.getLinks().add(new Link(Link.SELF, "0/forward/" + NUM_ENTRIES));
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            page.getEntries().add(new AtomEntry<>("id-" + i, now, new Content<>("value " + i, "text/plain")));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,195 @@
+package be.wegenenverkeer.atomium.format;
+
+import be.wegenenverkeer.atomium.api.FeedPage;
+import be.wegenenverkeer.atomium.api.FeedPageCodec;
+import be.wegenenverkeer.atomium.format.FeedPageSerializationTest.Customer;
+import be.wegenenverkeer.atomium.format.pub.AtomPubEntry;
+import be.wegenenverkeer.atomium.format.pub.Control;
+import be.wegenenverkeer.atomium.format.pub.Draft;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestStaxCodec {
+
+    private final static Logger logger = LoggerFactory.getLogger(TestStaxCodec.class);
+
+    static OffsetDateTime dateTime = OffsetDateTime.of(2015, 3, 26, 15, 53, 13, 0, ZoneOffset.ofHours(1));
+
+    static final int NUM_ENTRIES = 100;
+    static final int NUM_ROUNDS = 500;
+    static final int NUM_WARMUP_ROUNDS = 5000;
+
+    private final StaxCodec<String> stringCodec = new StaxCodec<>(String.class);
+    private final StaxCodec<Customer> customerCodec = new StaxCodec<>(new CustomerValueCodec());
+
+    @Test
+    public void encodesTheAtomEnvelope() {
+        FeedPage<String> page = new FeedPage<>("events", "http://localhost:9000/feeds/events/", "events",
+                new Generator("atomium", "http://github.com/WegenenVerkeer/atomium", "0.0.1"), dateTime);
+        page.getLinks().add(new Link(Link.SELF, "0/forward/10"));
+        page.getEntries().add(new AtomEntry<>("id1", dateTime, new Content<>("a < b", "")));
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                        "<ns2:feed xmlns:ns2=\"http://www.w3.org/2005/Atom\" xmlns:app=\"http://www.w3.org/2007/app\"" +
+                        " xml:base=\"http://localhost:9000/feeds/events/\">" +
+                        "<id>events</id><title>events</title>" +
+                        "<generator uri=\"http://github.com/WegenenVerkeer/atomium\" version=\"0.0.1\">atomium</generator>" +
+                        "<updated>2015-03-26T15:53:13+01:00</updated>" +
+                        "<link rel=\"self\" href=\"0/forward/10\"/>" +
+                        "<entry><id>id1</id><updated>2015-03-26T15:53:13+01:00</updated>" +
+                        "<content type=\"\"><value xsi:type=\"xs:string\" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"" +
+                        " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">a &lt; b</value></content>" +
+                        "</entry></ns2:feed>",
+                stringCodec.encode(page));
+    }
+
+    @Test
+    public void roundTripsStrings() {
+        FeedPage<String> page = mkStringPage(0);
+        page.getEntries().add(new AtomEntry<>("id1", dateTime, new Content<>("<html><p>bla</p></html>", "text/html")));
+        page.getEntries().add(new AtomEntry<>("id2", dateTime, new Content<>("\n   ---foo---   \n", "text/plain")));
+        page.getEntries().add(new AtomEntry<>("id3", dateTime, new Content<>("{'foo': 'bar'} & more", "application/json")));
+        page.getEntries().add(new AtomEntry<>("id4", dateTime, new Content<>("", null)));
+
+        assertEquals(page, stringCodec.decode(stringCodec.encode(page)));
+    }
+
+    @Test
+    public void roundTripsAtomPubEntriesWithPluggableValueCodec() {
+        FeedPage<Customer> page = new FeedPage<>("customers", "http://www.example.org", "customers", null, dateTime);
+        page.getLinks().add(new Link(Link.SELF, "foo"));
+        page.getEntries().add(new AtomEntry<>("id1", dateTime, new Content<>(new Customer("cname", 1), "application/xml")));
+        List<Link> links = new ArrayList<>();
+        links.add(new Link(Link.SELF, "entries/2"));
+        page.getEntries().add(new AtomPubEntry<>("id2", dateTime, new Content<>(new Customer("other & co", 2), "application/xml"),
+                links, dateTime.plusSeconds(5), new Control(Draft.YES)));
+
+        String encoded = customerCodec.encode(page);
+        assertEquals(page, customerCodec.decode(encoded));
+
+        // the streaming encoding is the UTF-8 encoding of the String encoding
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerCodec.encode(page, out);
+        assertEquals(encoded, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(page, customerCodec.decode(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void decodesIndentedDocumentsAndSkipsUnknownElements() {
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>\n" +
+                "<feed xmlns=\"http://www.w3.org/2005/Atom\" xmlns:app=\"http://www.w3.org/2007/app\" xml:base=\"http://localhost/\">\n" +
+                "  <id>events</id>\n" +
+                "  <author><name>somebody</name></author>\n" +
+                "  <updated>2015-03-26T15:53:13+01:00</updated>\n" +
+                "  <link rel=\"self\" href=\"0/forward/10\"/>\n" +
+                "  <entry>\n" +
+                "    <id>id1</id>\n" +
+                "    <updated>2015-03-26T15:53:13.000+01:00</updated>\n" +
+                "    <content type=\"text/plain\">\n" +
+                "      <value xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:type=\"xs:string\">foo</value>\n" +
+                "    </content>\n" +
+                "    <app:edited>2015-03-26T15:53:13+01:00</app:edited>\n" +
+                "    <app:control>\n" +
+                "      <app:draft>no</app:draft>\n" +
+                "    </app:control>\n" +
+                "  </entry>\n" +
+                "</feed>";
+
+        FeedPage<String> page = stringCodec.decode(xml);
+        assertEquals("events", page.getId());
+        assertEquals("http://localhost/", page.getBase());
+        assertEquals(dateTime, page.getUpdated());
+        assertEquals(1, page.getLinks().size());
+        assertEquals(new AtomPubEntry<>("id1", dateTime, new Content<>("foo", "text/plain"), new ArrayList<>(), dateTime,
+                new Control(Draft.NO)), page.getEntries().get(0));
+    }
+
+    @Test
+    public void isWireCompatibleWithJaxbCodec() {
+        JaxbCodec<String> jaxbCodec = new JaxbCodec<>(String.class);
+        FeedPage<String> page = mkStringPage(10);
+        page.getEntries().add(new AtomPubEntry<>("pub", dateTime, new Content<>("<p>bla</p>", "text/html"),
+                new ArrayList<>(), dateTime, new Control(Draft.NO)));
+
+        assertEquals(page, jaxbCodec.decode(stringCodec.encode(page)));
+        assertEquals(page, stringCodec.decode(jaxbCodec.encode(page)));
+    }
+
+    @Test
+    public void compareWithJaxbCodec() {
+        FeedPage<String> page = mkStringPage(NUM_ENTRIES);
+        JaxbCodec<String> jaxbCodec = new JaxbCodec<>(String.class);
+
+        // warm up, so that both codecs are compiled before they are measured
+        for (int i = 0; i < NUM_WARMUP_ROUNDS / NUM_ROUNDS; i++) {
+            time(stringCodec, page);
+            time(jaxbCodec, page);
+        }
+
+        logger.info("Round trip of a page of {} entries: StAX {} us, JAXB {} us",
+                NUM_ENTRIES, (long) time(stringCodec, page), (long) time(jaxbCodec, page));
+    }
+
+    private double time(FeedPageCodec<String, String> codec, FeedPage<String> page) {
+        long start = System.nanoTime();
+        for (int r = 0; r < NUM_ROUNDS; r++) {
+            codec.decode(codec.encode(page));
+        }
+        return (System.nanoTime() - start) / 1e3 / NUM_ROUNDS;
+    }
+
+    private FeedPage<String> mkStringPage(int numEntries) {
+        FeedPage<String> page = new FeedPage<>("strings", "http://www.example.org", "strings of life", null, dateTime);
+        page.getLinks().add(new Link(Link.SELF, "0/forward/" + numEntries));
+        page.getLinks().add(new Link(Link.LAST, "0/forward/" + numEntries));
+        for (int i = 0; i < numEntries; i++) {
+            page.getEntries().add(new AtomEntry<>("id-" + i, dateTime, new Content<>("value " + i, "text/plain")));
+        }
+        return page;
+    }
+
+    /**
+     * Writes customers as JAXB does, without using JAXB
+     */
+    static class CustomerValueCodec implements XmlValueCodec<Customer> {
+
+        @Override
+        public void write(Customer value, XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement("value");
+            writer.writeAttribute("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type", "customer");
+            writer.writeNamespace("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+            writer.writeAttribute("id", Integer.toString(value.id));
+            writer.writeStartElement("name");
+            writer.writeCharacters(value.name);
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+
+        @Override
+        public Customer read(XMLStreamReader reader) throws XMLStreamException {
+            Customer customer = new Customer();
+            customer.id = Integer.parseInt(reader.getAttributeValue(null, "id"));
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                customer.name = reader.getElementText();
+            }
+            reader.next();
+            return customer;
+        }
+    }
+}
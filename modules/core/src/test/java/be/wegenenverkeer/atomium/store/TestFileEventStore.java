@@ -0,0 +1,171 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestFileEventStore {
+
+    private final Codec<String, String> codec = new JacksonCodec<>(String.class);
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("atomium-file-store");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void readsRangesAcrossSegments() throws IOException {
+        List<Event<String>> events = mkEvents(0, 25);
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            store.push(events.subList(0, 7));
+            store.push(events.subList(7, 25));
+
+            assertEquals(25L, store.totalNumberOfEvents().longValue());
+            assertEquals(events, store.getEvents(0, 25));
+            assertEquals(events.subList(8, 22), store.getEvents(8, 14));
+            assertEquals(events.subList(20, 25), store.getEvents(20, 100));
+            assertEquals(0, store.getEvents(25, 10).size());
+        }
+        assertEquals(3, segmentFiles().size());
+    }
+
+    @Test
+    public void reopenRetainsEvents() throws IOException {
+        List<Event<String>> events = mkEvents(0, 30);
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            store.push(events.subList(0, 15));
+        }
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            assertEquals(15L, store.totalNumberOfEvents().longValue());
+            store.push(events.subList(15, 30));
+        }
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            assertEquals(events, store.getEvents(0, 30));
+        }
+    }
+
+    @Test
+    public void recoversPartiallyWrittenTail() throws IOException {
+        List<Event<String>> events = mkEvents(0, 14);
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            store.push(events);
+        }
+        Path tail = segmentFiles().get(1);
+        long size = Files.size(tail);
+        // cut the last record in half, as an interrupted write would
+        try (FileChannel channel = FileChannel.open(tail, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), size - 5);
+        }
+
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PER_BATCH)) {
+            assertEquals(13L, store.totalNumberOfEvents().longValue());
+            assertEquals(events.subList(0, 13), store.getEvents(0, 20));
+            Event<String> replacement = Event.make("replacement", "value", OffsetDateTime.now());
+            store.push(replacement);
+            assertEquals(replacement, store.getEvents(13, 1).get(0));
+        }
+    }
+
+    @Test
+    public void periodicSync() throws IOException {
+        List<Event<String>> events = mkEvents(0, 12);
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PERIODIC)) {
+            for (Event<String> event : events) {
+                store.push(event);
+            }
+            assertEquals(events, store.getEvents(0, 12));
+        }
+        try (FileEventStore<String> store = open(FileEventStore.SyncPolicy.PERIODIC)) {
+            assertEquals(events, store.getEvents(0, 12));
+        }
+    }
+
+    @Test
+    public void sizeFollowsSegmentsWrittenBeforeAFailure() throws IOException {
+        List<Event<String>> events = mkEvents(0, 25);
+        Codec<String, String> failing = new Codec<>() {
+            @Override
+            public String getMimeType() {
+                return codec.getMimeType();
+            }
+
+            @Override
+            public String encode(String value) {
+                if (value.equals("fail")) throw new IllegalStateException("failed");
+                return codec.encode(value);
+            }
+
+            @Override
+            public String decode(String encoded) {
+                return codec.decode(encoded);
+            }
+        };
+        try (FileEventStore<String> store = new FileEventStore<>(directory, failing, 10,
+                FileEventStore.SyncPolicy.PER_BATCH, Duration.ZERO)) {
+            store.push(events.subList(0, 5));
+            List<Event<String>> batch = new ArrayList<>(events.subList(5, 12));
+            batch.add(Event.make("failing", "fail", OffsetDateTime.now()));
+            try {
+                store.push(batch);
+                fail("Expected the batch to fail");
+            } catch (IllegalStateException expected) {
+            }
+            // the first segment was completed before the failure
+            assertEquals(10L, store.totalNumberOfEvents().longValue());
+            assertEquals(batch.subList(0, 5), store.getEvents(5, 5));
+
+            store.push(events.subList(12, 25));
+            assertEquals(23L, store.totalNumberOfEvents().longValue());
+            assertEquals(events.subList(12, 25), store.getEvents(10, 13));
+        }
+    }
+
+    private FileEventStore<String> open(FileEventStore.SyncPolicy policy) throws IOException {
+        return new FileEventStore<>(directory, codec, 10, policy, Duration.ofMillis(10));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> logs = new ArrayList<>();
+            files.filter(p -> p.toString().endsWith(".log")).sorted().forEach(logs::add);
+            return logs;
+        }
+    }
+
+    private List<Event<String>> mkEvents(int from, int to) {
+        List<Event<String>> events = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            events.add(Event.make("id-" + i, "value-" + i, OffsetDateTime.now()));
+        }
+        return events;
+    }
+
+}
@@ -1,6 +1,7 @@
 package be.wegenenverkeer.atomium.store;
 
 import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventReader;
 import be.wegenenverkeer.atomium.api.FeedMetadata;
 import be.wegenenverkeer.atomium.api.FeedPage;
 import be.wegenenverkeer.atomium.api.FeedPageProviderAdapters;
@@ -9,13 +10,22 @@ import org.hamcrest.core.StringContains;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.OffsetDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 05/12/16.
@@ -55,4 +65,126 @@ public class TestMemoryFeedEntryStore {
 
         assertThat(headPageJson, StringContains.containsString("entries"));
     }
+
+    @Test
+    public void streamingEventsReturnsRange() {
+        fixture.loadEntries(100, "Test value");
+
+        try (Stream<Event<String>> stream = fixture.store.streamEvents(10, 20)) {
+            List<String> ids = stream.map(Event::getId).collect(Collectors.toList());
+            assertEquals(IntStream.range(10, 30).mapToObj(Integer::toString).collect(Collectors.toList()), ids);
+        }
+    }
+
+    @Test
+    public void defaultStreamingReadsInChunks() {
+        fixture.loadEntries(2500, "Test value");
+        List<Long> requests = new ArrayList<>();
+        EventReader<String> reader = new EventReader<>() {
+            @Override
+            public List<Event<String>> getEvents(long startNum, long size) {
+                requests.add(startNum);
+                return fixture.store.getEvents(startNum, size);
+            }
+
+            @Override
+            public Long totalNumberOfEvents() {
+                return fixture.store.totalNumberOfEvents();
+            }
+        };
+
+        try (Stream<Event<String>> stream = reader.streamEvents(100, 5000)) {
+            assertEquals(2400, stream.count());
+        }
+        assertEquals(List.of(100L, 1100L, 2100L), requests);
+    }
+
+    @Test
+    public void readsAcrossChunkBoundaries() {
+        fixture.loadEntries(10000, "Test value");
+
+        List<Event<String>> received = fixture.store.getEvents(4090, 5000);
+        assertEquals(5000, received.size());
+        assertEquals("4090", received.get(0).getId());
+        assertEquals("9089", received.get(4999).getId());
+        assertEquals(10, fixture.store.getEvents(9990, 100).size());
+        assertEquals(0, fixture.store.getEvents(10000, 100).size());
+    }
+
+    @Test
+    public void concurrentBatchesDoNotInterleave() throws Exception {
+        MemoryEventStore<String> store = new MemoryEventStore<>();
+        int threads = 4;
+        int batches = 500;
+        int batchSize = 7;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            results.add(executor.submit(() -> {
+                for (int b = 0; b < batches; b++) {
+                    List<Event<String>> batch = new ArrayList<>();
+                    for (int i = 0; i < batchSize; i++) {
+                        batch.add(Event.make(thread + "-" + b + "-" + i, "value", OffsetDateTime.now()));
+                    }
+                    store.push(batch);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        long total = store.totalNumberOfEvents();
+        assertEquals(threads * batches * batchSize, total);
+        List<Event<String>> events = store.getEvents(0, total);
+        for (int start = 0; start < total; start += batchSize) {
+            String batchId = events.get(start).getId().substring(0, events.get(start).getId().lastIndexOf('-'));
+            for (int i = 0; i < batchSize; i++) {
+                assertEquals(batchId + "-" + i, events.get(start + i).getId());
+            }
+        }
+    }
+
+    @Test
+    public void failedBatchReservesNoSequenceNumbers() throws Exception {
+        MemoryEventStore<String> store = new MemoryEventStore<>();
+        store.push(Event.make("0", "value", OffsetDateTime.now()));
+        List<Event<String>> failing = new AbstractList<>() {
+            @Override
+            public Event<String> get(int index) {
+                if (index == 2) throw new IllegalStateException("failed");
+                return Event.make("failed-" + index, "value", OffsetDateTime.now());
+            }
+
+            @Override
+            public int size() {
+                return 5;
+            }
+        };
+        try {
+            store.push(failing);
+            fail("Expected the batch to fail");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            store.push(Arrays.asList(Event.make("null", "value", OffsetDateTime.now()), null));
+            fail("Expected the batch to be rejected");
+        } catch (NullPointerException expected) {
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> store.push(Event.make("1", "value", OffsetDateTime.now()))).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2L, (long) store.totalNumberOfEvents());
+        assertEquals(List.of("0", "1"), store.getEvents(0, 10).stream().map(Event::getId).collect(Collectors.toList()));
+        try (Stream<Event<String>> stream = store.streamEvents(0, 10)) {
+            assertEquals(2, stream.count());
+        }
+    }
 }
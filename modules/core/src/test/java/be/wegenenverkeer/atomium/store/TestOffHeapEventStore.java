@@ -0,0 +1,67 @@
+package be.wegenenverkeer.atomium.store;
+
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestOffHeapEventStore {
+
+    @Test
+    public void readsEventsAcrossSlabs() {
+        OffHeapEventStore<String> store = new OffHeapEventStore<>(new JacksonCodec<>(String.class), 1024 * 1024, 1024);
+        List<Event<String>> events = mkEvents(5000);
+        store.push(events.subList(0, 1));
+        store.push(events.subList(1, 5000));
+
+        assertEquals(5000L, store.totalNumberOfEvents().longValue());
+        assertEquals(events, store.getEvents(0, 5000));
+        assertEquals(events.subList(4090, 4100), store.getEvents(4090, 10));
+        assertEquals(events.subList(4990, 5000), store.getEvents(4990, 100));
+        assertEquals(0, store.getEvents(5000, 10).size());
+    }
+
+    @Test
+    public void preservesTimestampsAndOffsets() {
+        OffHeapEventStore<String> store = new OffHeapEventStore<>(new JacksonCodec<>(String.class), 1024);
+        OffsetDateTime updated = OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 123456789, ZoneOffset.ofHours(2));
+        store.push(Event.make("id", "value", updated));
+
+        assertEquals(updated, store.getEvents(0, 1).get(0).getUpdated());
+    }
+
+    @Test
+    public void rejectsBatchExceedingBudget() {
+        OffHeapEventStore<String> store = new OffHeapEventStore<>(new JacksonCodec<>(String.class), 2048, 1024);
+        List<Event<String>> events = mkEvents(100);
+        store.push(events.subList(0, 10));
+        try {
+            store.push(events.subList(10, 100));
+            fail("Expected the budget to be exceeded");
+        } catch (OffHeapCapacityExceededException expected) {
+            // the batch is rejected as a whole
+        }
+
+        assertEquals(10L, store.totalNumberOfEvents().longValue());
+        assertEquals(events.subList(0, 10), store.getEvents(0, 100));
+        store.push(events.subList(10, 12));
+        assertEquals(events.subList(0, 12), store.getEvents(0, 100));
+        assertEquals(1024L, store.getAllocatedBytes());
+    }
+
+    private List<Event<String>> mkEvents(int num) {
+        List<Event<String>> events = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            events.add(Event.make(Integer.toString(i), "value-" + i, OffsetDateTime.now()));
+        }
+        return events;
+    }
+
+}
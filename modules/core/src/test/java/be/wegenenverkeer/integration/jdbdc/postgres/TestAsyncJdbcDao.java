@@ -0,0 +1,69 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.AsyncFeedPageProvider;
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.FeedMetadata;
+import be.wegenenverkeer.atomium.api.FeedPage;
+import be.wegenenverkeer.atomium.api.FeedPageProviderAdapters;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.JdbcAsyncEventDao;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestAsyncJdbcDao extends AbstractIntegrationTest {
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+    FeedMetadata feedMetadata = new FeedMetadata(10, "http://localhost/feeds/test", "Test feed");
+    PGSimpleDataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+        }
+    }
+
+    @Test
+    public void writeAndReadAsynchronously() throws Exception {
+        List<Event<TestVal>> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            events.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+
+        try (JdbcAsyncEventDao<TestVal> dao = new JdbcAsyncEventDao<>(store, dataSource, 2, 10)) {
+            assertTrue(dao.push(events).toCompletableFuture().get());
+            try (Connection conn = mkConnection()) {
+                store.index(conn);
+            }
+
+            assertEquals(25L, dao.totalNumberOfEvents().toCompletableFuture().get().longValue());
+            assertEquals(events.subList(5, 10), dao.getEvents(5, 5).toCompletableFuture().get());
+
+            AsyncFeedPageProvider<TestVal> provider = FeedPageProviderAdapters.adaptAsync(dao, feedMetadata);
+            FeedPage<TestVal> page = provider.getFeedPage(page(1)).toCompletableFuture().get();
+            assertEquals(10, page.getEntries().size());
+            assertTrue(page.complete());
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the throughput of writing events one-by-one with batched writes.
+ */
+public class TestBatchInsert extends AbstractIntegrationTest {
+
+    static final int NUM_EVENTS = 5000;
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+
+    @Before
+    public void init() throws SQLException {
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+        }
+    }
+
+    @Test
+    public void batchedWritesAreIndexedInOrder() throws SQLException {
+        PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec, 7);
+        List<Event<TestVal>> events = mkEvents(25);
+        try (Connection conn = mkConnection()) {
+            store.createDao(conn).push(events);
+            assertEquals(events, store.indexAndRetrieve(conn, 0, 30));
+        }
+    }
+
+    @Test
+    public void compareEventsPerSecond() throws SQLException {
+        double loop = eventsPerSecond(new PostgresEventStore<>(metadata, codec, 1));
+        truncate();
+        double batched = eventsPerSecond(new PostgresEventStore<>(metadata, codec, 500));
+        LOG.info("Writing {} events: one-by-one {} events/sec, batched {} events/sec", NUM_EVENTS, (long) loop, (long) batched);
+    }
+
+    private double eventsPerSecond(PostgresEventStore<TestVal> store) throws SQLException {
+        List<Event<TestVal>> events = mkEvents(NUM_EVENTS);
+        try (Connection conn = mkConnection()) {
+            long start = System.nanoTime();
+            store.createDao(conn).push(events);
+            long elapsed = System.nanoTime() - start;
+            store.index(conn);
+            assertEquals(NUM_EVENTS, store.createDao(conn).totalNumberOfEvents().longValue());
+            return NUM_EVENTS / (elapsed / 1e9);
+        }
+    }
+
+    private void truncate() throws SQLException {
+        try (Connection conn = mkConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE " + metadata.getTableName());
+        }
+    }
+
+    private List<Event<TestVal>> mkEvents(int num) {
+        List<Event<TestVal>> events = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            events.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+        return events;
+    }
+
+}
@@ -1,10 +1,18 @@
 package be.wegenenverkeer.integration.jdbdc.postgres;
 
 import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.MigrateEventTableOp;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 13/12/16.
@@ -15,9 +23,37 @@ public class TestCreateEventTable extends AbstractIntegrationTest {
     public void testCreate() {
         try (Connection conn = mkConnection(); CreateEventTableOp op = dialect.mkCreateEventTableOp(conn, metadata)) {
             op.execute();
+            assertEquals(Set.of("events_pkey", "events_seqno_key", "events_unindexed_idx"), indexNames(conn));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Test
+    public void testMigrate() throws SQLException {
+        try (Connection conn = mkConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE events ( id SERIAL primary key, seqno INT, event_id VARCHAR(60), updated TIMESTAMP, json jsonb )");
+            }
+            try (MigrateEventTableOp op = dialect.mkMigrateEventTableOp(conn, metadata, true)) {
+                assertEquals(3, op.execute().intValue());
+                assertEquals(0, op.execute().intValue());
+            }
+            assertEquals(Set.of("events_pkey", "events_seqno_key", "events_unindexed_idx", "events_updated_brin"), indexNames(conn));
+        }
+    }
+
+    private Set<String> indexNames(Connection conn) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT indexname FROM pg_indexes WHERE tablename = ?")) {
+            stmt.setString(1, metadata.getTableName());
+            try (ResultSet res = stmt.executeQuery()) {
+                while (res.next()) {
+                    names.add(res.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
 }
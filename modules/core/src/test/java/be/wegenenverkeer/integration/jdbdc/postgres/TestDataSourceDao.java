@@ -0,0 +1,87 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventDao;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestDataSourceDao extends AbstractIntegrationTest {
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+    PGSimpleDataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+        }
+    }
+
+    @Test
+    public void daoIsSharedBetweenThreads() throws Exception {
+        EventDao<TestVal> dao = store.createDao(dataSource);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                results.add(executor.submit(() -> dao.push(mkEvents(thread, 10))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Event<TestVal>> events = store.indexAndRetrieve(dataSource, 0, 100);
+        assertEquals(40, events.size());
+        assertEquals(40L, dao.totalNumberOfEvents().longValue());
+        try (Stream<Event<TestVal>> stream = dao.streamEvents(0, 100)) {
+            assertEquals(events, stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void pushedEventsAreReadAfterIndexing() throws SQLException {
+        EventDao<TestVal> dao = store.createDao(dataSource);
+        dao.push(mkEvents(0, 5));
+        assertEquals(Collections.emptyList(), dao.getEvents(0, 10));
+        assertEquals(5, store.indexAndRetrieve(dataSource, 0, 10).size());
+    }
+
+    private List<Event<TestVal>> mkEvents(int thread, int num) {
+        List<Event<TestVal>> events = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            String id = thread + "-" + i;
+            events.add(Event.make(id, new TestVal("test " + id), OffsetDateTime.now()));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,64 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import be.wegenenverkeer.atomium.store.PostgresHeadListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestHeadListener extends AbstractIntegrationTest {
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+    PGSimpleDataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+        }
+    }
+
+    @Test
+    public void indexingNotifiesNewHead() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        try (PostgresHeadListener listener = new PostgresHeadListener(dataSource, metadata)) {
+            listener.subscribe(head -> {
+                if (head == 4) latch.countDown();
+            });
+            listener.start();
+
+            List<Event<TestVal>> entries = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                entries.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+            }
+            try (Connection conn = mkConnection()) {
+                store.createDao(conn).push(entries);
+                store.indexIncrementally(conn, 10);
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(4, listener.getHeadSequenceNo());
+        }
+    }
+}
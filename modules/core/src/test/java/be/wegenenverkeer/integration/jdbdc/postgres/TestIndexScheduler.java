@@ -0,0 +1,86 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.IndexScheduler;
+import be.wegenenverkeer.atomium.store.PostgresDialect;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestIndexScheduler extends AbstractIntegrationTest {
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+    PGSimpleDataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+        }
+    }
+
+    @Test
+    public void onlyTheLockHolderIndexes() throws SQLException {
+        pushEvents(5);
+        PostgresDialect pg = PostgresDialect.INSTANCE;
+        long key = pg.indexLockKey(metadata);
+
+        try (IndexScheduler scheduler = new IndexScheduler(store, dataSource, Duration.ofMillis(10), Duration.ofSeconds(1), 2)) {
+            try (Connection other = mkConnection()) {
+                assertTrue(pg.mkTryAdvisoryLockOp(other, key).execute());
+                assertEquals(IndexScheduler.NOT_LEADER, scheduler.runOnce());
+                assertTrue(pg.mkAdvisoryUnlockOp(other, key).execute());
+            }
+            assertEquals(5, scheduler.runOnce());
+            assertEquals(0, scheduler.runOnce());
+        }
+    }
+
+    @Test
+    public void scheduledIndexingCatchesUp() throws Exception {
+        try (IndexScheduler scheduler = new IndexScheduler(store, dataSource, Duration.ofMillis(10), Duration.ofMillis(50), 3)) {
+            scheduler.start();
+            pushEvents(10);
+            scheduler.trigger();
+            long deadline = System.currentTimeMillis() + 10000;
+            long total = 0;
+            while (total < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                try (Connection conn = mkConnection()) {
+                    total = store.createDao(conn).totalNumberOfEvents();
+                }
+            }
+            assertEquals(10, total);
+        }
+    }
+
+    private void pushEvents(int num) throws SQLException {
+        List<Event<TestVal>> entries = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            entries.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+        try (Connection conn = mkConnection()) {
+            store.createDao(conn).push(entries);
+        }
+    }
+}
@@ -14,9 +14,12 @@ import java.sql.SQLException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 13/12/16.
@@ -72,6 +75,97 @@ public class TestJdbcDao extends AbstractIntegrationTest {
 
     }
 
+    @Test
+    public void incrementalIndexingIsBounded() throws SQLException {
+
+        List<Event<TestVal>> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+
+        try (Connection conn = mkConnection()) {
+            store.createDao(conn).push(entries);
+            assertEquals(2, store.indexIncrementally(conn, 2));
+            assertEquals(entries.subList(0, 2), store.createDao(conn).getEvents(0, 5));
+            assertEquals(2, store.indexIncrementally(conn, 2));
+            assertEquals(1, store.indexIncrementally(conn, 2));
+            assertEquals(0, store.indexIncrementally(conn, 2));
+            assertEquals(entries, store.createDao(conn).getEvents(0, 5));
+        }
+    }
+
+    @Test
+    public void bulkLoadedEventsAreIndexed() throws SQLException {
+
+        List<Event<TestVal>> entries = new ArrayList<>();
+        entries.add(Event.make("0", new TestVal("plain"), OffsetDateTime.now()));
+        entries.add(Event.make("1", new TestVal("tab\tand newline\n"), OffsetDateTime.now()));
+        entries.add(Event.make("2", new TestVal("back\\slash"), OffsetDateTime.now()));
+
+        try (Connection conn = mkConnection()) {
+            assertEquals(3, store.bulkLoad(conn, entries));
+        }
+
+        try (Connection conn = mkConnection()) {
+            List<Event<TestVal>> list = store.indexAndRetrieve(conn, 0, 5);
+            assertEquals(entries, list);
+        }
+    }
+
+    @Test
+    public void bulkLoadedAndPushedEventsRoundTripAlike() throws SQLException {
+        OffsetDateTime updated = OffsetDateTime.now().withNano(123456789);
+
+        try (Connection conn = mkConnection()) {
+            store.createDao(conn).push(Event.make("pushed", new TestVal("pushed"), updated));
+            store.bulkLoad(conn, List.of(Event.make("copied", new TestVal("copied"), updated)));
+        }
+
+        try (Connection conn = mkConnection()) {
+            List<Event<TestVal>> list = store.indexAndRetrieve(conn, 0, 5);
+            assertEquals(2, list.size());
+            assertEquals(list.get(0).getUpdated(), list.get(1).getUpdated());
+            assertEquals(123000000, list.get(1).getUpdated().getNano());
+        }
+    }
+
+    @Test
+    public void bulkLoadRejectsEventsWithoutId() {
+        List<Event<TestVal>> entries = new ArrayList<>();
+        entries.add(Event.make("0", new TestVal("plain"), OffsetDateTime.now()));
+        entries.add(Event.make(null, new TestVal("no id"), OffsetDateTime.now()));
+
+        try (Connection conn = mkConnection()) {
+            store.bulkLoad(conn, entries);
+            fail("Expected the bulk load to fail");
+        } catch (SQLException e) {
+            assertEquals("Event id must not be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void streamingEventsUsesCursor() throws SQLException {
+
+        List<Event<TestVal>> entries = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            entries.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+        PostgresEventStore<TestVal> smallFetchStore = new PostgresEventStore<>(metadata, codec, 10, 4);
+
+        try (Connection conn = mkConnection()) {
+            smallFetchStore.bulkLoad(conn, entries);
+            smallFetchStore.index(conn);
+        }
+
+        try (Connection conn = mkConnection()) {
+            EventDao<TestVal> dao = smallFetchStore.createDao(conn);
+            try (Stream<Event<TestVal>> stream = dao.streamEvents(5, 100)) {
+                assertEquals(entries.subList(5, 25), stream.collect(Collectors.toList()));
+            }
+            assertTrue(conn.getAutoCommit());
+            assertEquals(entries.subList(0, 3), dao.getEvents(0, 3));
+        }
+    }
 
 }
 
@@ -0,0 +1,108 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.ETagStrategy;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.FeedMetadata;
+import be.wegenenverkeer.atomium.api.FeedPage;
+import be.wegenenverkeer.atomium.api.FeedPageProviderAdapters;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.format.JacksonFeedPageCodec;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.PageSnapshot;
+import be.wegenenverkeer.atomium.store.PageSnapshotBuilder;
+import be.wegenenverkeer.atomium.store.PageSnapshotStore;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static be.wegenenverkeer.atomium.api.FeedPageRef.page;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestPageSnapshots extends AbstractIntegrationTest {
+
+    static final String JSON = "application/json";
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    JacksonFeedPageCodec<TestVal> pageCodec = new JacksonFeedPageCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+    FeedMetadata feedMetadata = new FeedMetadata(10, "http://localhost/feeds/test", "Test feed");
+    PageSnapshotStore snapshots = new PageSnapshotStore(metadata);
+    PGSimpleDataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+            snapshots.createTable(connection);
+        }
+    }
+
+    @Test
+    public void completedPagesAreSnapshotted() throws SQLException {
+        pushEvents(35);
+
+        try (PageSnapshotBuilder<TestVal> builder = mkBuilder(2)) {
+            assertEquals(2, builder.runOnce());
+            assertEquals(1, builder.runOnce());
+            // the head page is never complete
+            assertEquals(0, builder.runOnce());
+        }
+
+        try (Connection conn = mkConnection()) {
+            assertEquals(2, snapshots.getLastPageNum(conn, JSON));
+            FeedPage<TestVal> expected = FeedPageProviderAdapters.adapt(store.createDao(conn), feedMetadata).getFeedPage(page(1));
+            PageSnapshot snapshot = snapshots.get(conn, 1, JSON).get();
+            assertArrayEquals(PageSnapshotBuilder.utf8(pageCodec).apply(expected), snapshot.getBody());
+            assertEquals(expected.calcETag(), snapshot.getEtag());
+            assertEquals(expected.getUpdated().toInstant(), snapshot.getUpdated().toInstant());
+            assertFalse(snapshots.get(conn, 3, JSON).isPresent());
+        }
+    }
+
+    @Test
+    public void snapshotsUseTheConfiguredETagStrategy() throws SQLException {
+        pushEvents(15);
+        try (PageSnapshotBuilder<TestVal> builder = new PageSnapshotBuilder<>(store, feedMetadata, snapshots, dataSource,
+                Map.of(JSON, PageSnapshotBuilder.utf8(pageCodec)), Duration.ofSeconds(1), 1, ETagStrategy.STRUCTURAL)) {
+            assertEquals(1, builder.runOnce());
+        }
+
+        try (Connection conn = mkConnection()) {
+            FeedPage<TestVal> expected = FeedPageProviderAdapters.adapt(store.createDao(conn), feedMetadata).getFeedPage(page(0));
+            assertEquals(expected.getETag(ETagStrategy.STRUCTURAL), snapshots.get(conn, 0, JSON).get().getEtag());
+        }
+    }
+
+    private PageSnapshotBuilder<TestVal> mkBuilder(int maxPagesPerRun) {
+        return new PageSnapshotBuilder<>(store, feedMetadata, snapshots, dataSource,
+                Map.of(JSON, PageSnapshotBuilder.utf8(pageCodec)), Duration.ofSeconds(1), maxPagesPerRun);
+    }
+
+    private void pushEvents(int num) throws SQLException {
+        List<Event<TestVal>> events = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            events.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+        }
+        try (Connection conn = mkConnection()) {
+            store.createDao(conn).push(events);
+            store.index(conn);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package be.wegenenverkeer.integration.jdbdc.postgres;
+
+import be.wegenenverkeer.atomium.api.Codec;
+import be.wegenenverkeer.atomium.api.Event;
+import be.wegenenverkeer.atomium.api.EventDao;
+import be.wegenenverkeer.atomium.format.JacksonCodec;
+import be.wegenenverkeer.atomium.store.CloseableEventDao;
+import be.wegenenverkeer.atomium.store.CreateEventTableOp;
+import be.wegenenverkeer.atomium.store.PostgresEventStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the per-page latency of reading with statements prepared per call with that of reading with a DAO that
+ * reuses its statements.
+ */
+public class TestStatementReuse extends AbstractIntegrationTest {
+
+    static final int NUM_EVENTS = 1000;
+    static final int PAGE_SIZE = 20;
+    static final int NUM_READS = 2000;
+
+    Codec<TestVal, String> codec = new JacksonCodec<>(TestVal.class);
+    PostgresEventStore<TestVal> store = new PostgresEventStore<>(metadata, codec);
+
+    @Before
+    public void init() throws SQLException {
+        try (Connection connection = mkConnection()) {
+            CreateEventTableOp op = dialect.mkCreateEventTableOp(connection, metadata);
+            op.execute();
+            List<Event<TestVal>> events = new ArrayList<>(NUM_EVENTS);
+            for (int i = 0; i < NUM_EVENTS; i++) {
+                events.add(Event.make(Integer.toString(i), new TestVal("test " + i), OffsetDateTime.now()));
+            }
+            store.bulkLoad(connection, events);
+            store.index(connection);
+        }
+    }
+
+    @Test
+    public void reusedDaoReadsSamePages() throws SQLException {
+        try (Connection conn = mkConnection(); CloseableEventDao<TestVal> dao = store.openDao(conn)) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(store.createDao(conn).getEvents(i * PAGE_SIZE, PAGE_SIZE), dao.getEvents(i * PAGE_SIZE, PAGE_SIZE));
+                assertEquals(NUM_EVENTS, dao.totalNumberOfEvents().longValue());
+            }
+        }
+    }
+
+    @Test
+    public void comparePageLatency() throws SQLException {
+        try (Connection conn = mkConnection()) {
+            // warm up
+            readPages(conn, false);
+            readPages(conn, true);
+
+            double perCall = readPages(conn, false);
+            double reused = readPages(conn, true);
+            LOG.info("Reading {} pages of {} events: statements per call {} us/page, reused statements {} us/page",
+                    NUM_READS, PAGE_SIZE, (long) perCall, (long) reused);
+        }
+    }
+
+    private double readPages(Connection conn, boolean reuse) {
+        if (!reuse) {
+            return readPages(store.createDao(conn));
+        }
+        try (CloseableEventDao<TestVal> dao = store.openDao(conn)) {
+            return readPages(dao);
+        }
+    }
+
+    private double readPages(EventDao<TestVal> dao) {
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_READS; i++) {
+            long head = dao.totalNumberOfEvents();
+            long page = (i % (NUM_EVENTS / PAGE_SIZE)) * PAGE_SIZE;
+            assertEquals(PAGE_SIZE, dao.getEvents(Math.min(page, head - PAGE_SIZE), PAGE_SIZE).size());
+        }
+        return (System.nanoTime() - start) / 1e3 / NUM_READS;
+    }
+
+}
@@ -1,18 +1,27 @@
 package be.wegenenverkeer.atomium.play
 
-import be.wegenenverkeer.atomium.api.{ FeedPage, FeedPageCodec }
+import java.io.{ ByteArrayInputStream, InputStream, OutputStream }
+
+import be.wegenenverkeer.atomium.api.{ FeedPage, FeedPageCodec, StreamingCodec }
 import be.wegenenverkeer.atomium.format.JaxbCodec
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 18/11/16.
  */
-case class PlayJaxbCodec[E](typeMarker: Class[E]) extends FeedPageCodec[E, Array[Byte]] {
+case class PlayJaxbCodec[E](typeMarker: Class[E]) extends FeedPageCodec[E, Array[Byte]] with StreamingCodec[FeedPage[E]] {
 
   val delegate = new JaxbCodec(typeMarker)
 
   override def getMimeType: String = delegate.getMimeType
 
-  override def encode(page: FeedPage[E]): Array[Byte] = delegate.encode(page).getBytes("UTF-8")
+  override def encode(page: FeedPage[E]): Array[Byte] = {
+    val buffer = encodeToByteBuffer(page)
+    java.util.Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit())
+  }
+
+  override def decode(encoded: Array[Byte]): FeedPage[E] = delegate.decode(new ByteArrayInputStream(encoded))
+
+  override def encode(page: FeedPage[E], out: OutputStream): Unit = delegate.encode(page, out)
 
-  override def decode(encoded: Array[Byte]): FeedPage[E] = delegate.decode(new String(encoded, "UTF-8"))
+  override def decode(in: InputStream): FeedPage[E] = delegate.decode(in)
 }
@@ -12,7 +12,7 @@ case class PlayJsonCodec[E]()(implicit val entryFormat: Format[E]) extends FeedP
   override def getMimeType: String = "application/json"
 
   override def encode(page: FeedPage[E]): Array[Byte] =
-    Json.toJson(page).toString.getBytes("UTF-8")
+    Json.toBytes(Json.toJson(page))
 
   override def decode(encoded: Array[Byte]): FeedPage[E] = ??? // we don't yet need this
 
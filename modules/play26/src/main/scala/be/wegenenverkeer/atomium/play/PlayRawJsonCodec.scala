@@ -0,0 +1,30 @@
+package be.wegenenverkeer.atomium.play
+
+import java.io.{ ByteArrayInputStream, InputStream, OutputStream }
+
+import be.wegenenverkeer.atomium.api.{ FeedPage, FeedPageCodec, RawJson, StreamingCodec }
+import be.wegenenverkeer.atomium.format.JacksonFeedPageCodec
+
+/**
+ * Codec for feed pages with raw JSON entry values.
+ *
+ * The entry values are spliced verbatim into the content of each entry. Play JSON has no way to write a raw value, so
+ * this delegates to the Jackson codec, which produces the same JSON as [[PlayJsonCodec]].
+ */
+case class PlayRawJsonCodec() extends FeedPageCodec[RawJson, Array[Byte]] with StreamingCodec[FeedPage[RawJson]] {
+
+  val delegate: JacksonFeedPageCodec[RawJson] = JacksonFeedPageCodec.rawJson()
+
+  override def getMimeType: String = delegate.getMimeType
+
+  override def encode(page: FeedPage[RawJson]): Array[Byte] = {
+    val buffer = encodeToByteBuffer(page)
+    java.util.Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit())
+  }
+
+  override def decode(encoded: Array[Byte]): FeedPage[RawJson] = delegate.decode(new ByteArrayInputStream(encoded))
+
+  override def encode(page: FeedPage[RawJson], out: OutputStream): Unit = delegate.encode(page, out)
+
+  override def decode(in: InputStream): FeedPage[RawJson] = delegate.decode(in)
+}
@@ -4,8 +4,10 @@ import java.time.OffsetDateTime
 import java.time.format.DateTimeFormatter
 import java.time.temporal.ChronoField
 
-import be.wegenenverkeer.atomium.api.{ FeedPage, FeedPageCodec }
+import akka.util.ByteString
+import be.wegenenverkeer.atomium.api.{ ETagStrategy, FeedPage, FeedPageCodec, StreamingCodec }
 import be.wegenenverkeer.atomium.format.Generator
+import be.wegenenverkeer.atomium.store.PageSnapshot
 import org.slf4j.LoggerFactory
 import play.api.http.{ HeaderNames, MediaRange }
 import play.api.mvc._
@@ -48,6 +50,17 @@ trait FeedSupport[T] extends Results with HeaderNames with Rendering with Accept
    */
   def marshallers: PartialFunction[MediaRange, FeedPageCodec[T, Array[Byte]]]
 
+  /**
+   * The strategy used to compute the ETag of feed pages. The ETag is computed once per page.
+   *
+   * Override this to use e.g. `ETagStrategy.STRUCTURAL`, whose cost does not grow with the number of entries. Note that
+   * changing the strategy changes the ETags of all pages, so clients will refetch them once. Pages served from
+   * snapshots keep the ETag stored in the snapshot.
+   *
+   * @return the ETag strategy, by default `ETagStrategy.MD5`
+   */
+  def etagStrategy: ETagStrategy = ETagStrategy.MD5
+
   private def buildRenders(feed: FeedPage[T]): PartialFunction[MediaRange, Result] =
     new PartialFunction[MediaRange, Result] {
       override def isDefinedAt(x: MediaRange): Boolean = marshallers.isDefinedAt(x)
@@ -66,6 +79,52 @@ trait FeedSupport[T] extends Results with HeaderNames with Rendering with Accept
    */
   def processFeedPage(page: Future[Option[FeedPage[T]]])(implicit codec: Codec) = actionBuilder.async { implicit request =>
     logger.info(s"processing request: $request")
+    pageResult(page)
+  }
+
+  def processFeedPage(page: Option[FeedPage[T]])(implicit codec: Codec): Action[AnyContent] = {
+    processFeedPage(Future.successful(page))
+  }
+
+  /**
+   * serve a completed page from its snapshot, or marshall the page if there is no snapshot
+   *
+   * The snapshot is looked up for the mime type of the first marshaller that accepts the request.
+   *
+   * @param snapshot the lookup of the page snapshot, by mime type (e.g. using `PageSnapshotStore.get`)
+   * @param page the optional page of the feed, only evaluated when there is no snapshot
+   * @param codec the implicit codec
+   * @return the response
+   */
+  def processFeedPage(snapshot: String => Future[Option[PageSnapshot]], page: => Future[Option[FeedPage[T]]])(implicit codec: Codec): Action[AnyContent] =
+    actionBuilder.async { implicit request =>
+      logger.info(s"processing request: $request")
+      val mimeType = request.acceptedTypes.collectFirst {
+        case range if marshallers.isDefinedAt(range) => marshallers(range).getMimeType
+      }
+      mimeType match {
+        case Some(mime) =>
+          snapshot(mime).flatMap {
+            case Some(s) => Future.successful(snapshotResult(s, request.headers))
+            case None    => pageResult(page)
+          }
+        case None => pageResult(page)
+      }
+    }
+
+  private def snapshotResult(snapshot: PageSnapshot, headers: Headers): Result = {
+    if (notModified(snapshot.getEtag, snapshot.getUpdated, headers)) {
+      logger.info("sending response: 304 Not-Modified")
+      NotModified
+    } else {
+      logger.info("sending response: 200 Found (snapshot)")
+      withCacheHeaders(Ok(snapshot.getBody), complete = true)
+        .withHeaders(LAST_MODIFIED -> snapshot.getUpdated.format(DateTimeFormatter.RFC_1123_DATE_TIME), ETAG -> snapshot.getEtag)
+        .as(snapshot.getMimeType)
+    }
+  }
+
+  private def pageResult(page: Future[Option[FeedPage[T]]])(implicit request: Request[AnyContent]): Future[Result] = {
     page.map {
       case Some(f) =>
         if (notModified(f, request.headers)) {
@@ -82,43 +141,46 @@ trait FeedSupport[T] extends Results with HeaderNames with Rendering with Accept
     }
   }
 
-  def processFeedPage(page: Option[FeedPage[T]])(implicit codec: Codec): Action[AnyContent] = {
-    processFeedPage(Future.successful(page))
-  }
-
   private def marshall(codec: FeedPageCodec[T, Array[Byte]], feed: FeedPage[T]): Result = {
     //marshall feed and add Last-Modified header
 
-    val (contentType, payload) = (codec.getMimeType, codec.encode(feed))
-
     logger.info("sending response: 200 Found")
-    val result = Ok(payload)
-      .withHeaders(LAST_MODIFIED -> feed.getUpdated().format(DateTimeFormatter.RFC_1123_DATE_TIME), ETAG -> feed.calcETag)
-
-    //add extra cache headers or forbid caching
-    val resultWithCacheHeader =
-      if (feed.complete()) {
-        val expires = OffsetDateTime.now().plusSeconds(1000L)
-        result.withHeaders(CACHE_CONTROL -> {
-          "public, max-age=" + cacheTime
-        }, EXPIRES -> DateTimeFormatter.RFC_1123_DATE_TIME.format(expires))
-      } else {
-        result.withHeaders(CACHE_CONTROL -> "public, max-age=0, no-cache, must-revalidate")
-      }
+    val result = codec match {
+      case streaming: StreamingCodec[FeedPage[T] @unchecked] =>
+        // wrap the encoded bytes without copying them
+        val buffer = streaming.encodeToByteBuffer(feed)
+        Ok(ByteString.fromArrayUnsafe(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()))
+      case _ => Ok(codec.encode(feed))
+    }
+      .withHeaders(LAST_MODIFIED -> feed.getUpdated().format(DateTimeFormatter.RFC_1123_DATE_TIME), ETAG -> feed.getETag(etagStrategy))
 
-    resultWithCacheHeader.as(contentType)
+    withCacheHeaders(result, feed.complete()).as(codec.getMimeType)
   }
 
+  //add extra cache headers or forbid caching
+  private def withCacheHeaders(result: Result, complete: Boolean): Result =
+    if (complete) {
+      val expires = OffsetDateTime.now().plusSeconds(1000L)
+      result.withHeaders(CACHE_CONTROL -> {
+        "public, max-age=" + cacheTime
+      }, EXPIRES -> DateTimeFormatter.RFC_1123_DATE_TIME.format(expires))
+    } else {
+      result.withHeaders(CACHE_CONTROL -> "public, max-age=0, no-cache, must-revalidate")
+    }
+
   //if modified since 02-11-2014 12:00:00 and getUpdated on 02-11-2014 15:00:00 => modified => false
   //if modified since 02-11-2014 12:00:00 and getUpdated on 02-11-2014 10:00:00 => not modified => true
   //if modified since 02-11-2014 12:00:00 and getUpdated on 02-11-2014 12:00:00 => not modified => true
-  private def notModified(f: FeedPage[T], headers: Headers): Boolean = {
+  private def notModified(f: FeedPage[T], headers: Headers): Boolean =
+    notModified(f.getETag(etagStrategy), f.getUpdated, headers)
+
+  private def notModified(etag: String, pageUpdated: OffsetDateTime, headers: Headers): Boolean = {
 
-    val ifNoneMatch = headers get IF_NONE_MATCH exists (_ == f.calcETag)
+    val ifNoneMatch = headers get IF_NONE_MATCH exists (_ == etag)
 
     val ifModifiedSince = headers get IF_MODIFIED_SINCE exists { dateStr =>
       try {
-        val updated = f.getUpdated.`with`(ChronoField.MILLI_OF_SECOND, 0)
+        val updated = pageUpdated.`with`(ChronoField.MILLI_OF_SECOND, 0)
         OffsetDateTime.parse(dateStr, DateTimeFormatter.RFC_1123_DATE_TIME).compareTo(updated) >= 0
       } catch {
         case e: IllegalArgumentException =>
@@ -18,7 +18,6 @@ object Dependencies {
   val scalaTestPlay26       = "org.scalatestplus.play" %% "scalatestplus-play" % "3.1.1" % "test"
   val scalaCheck            = "org.scalacheck" %% "scalacheck" % "1.14.1" % "test"
   val wiremock              = "com.github.tomakehurst" % "wiremock" % "2.26.3" % "test"
-  val postgresdriver        = "org.postgresql" % "postgresql" % "42.2.13" % "test"
   val play26Test            = "com.typesafe.play" %% "play-test" % play26Version % "test"
   val testcontainersVersion = "1.15.1"
   val testcontainers        = "org.testcontainers" % "testcontainers" % testcontainersVersion % "test"
@@ -36,6 +35,9 @@ object Dependencies {
 
   val slf4j = "org.slf4j" % "slf4j-api" % "1.7.30"
 
+  // provided: the Postgres store uses the driver API (e.g. for COPY), but applications supply the driver
+  val postgresdriver = "org.postgresql" % "postgresql" % "42.2.13" % "provided"
+
   val mainDependencies = Seq(
     logback,
     jaxwsRt,